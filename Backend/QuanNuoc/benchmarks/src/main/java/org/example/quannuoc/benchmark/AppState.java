@@ -0,0 +1,65 @@
+package org.example.quannuoc.benchmark;
+
+import org.example.quannuoc.QuanNuocApplication;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.example.quannuoc.repository.MenuItemRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Khởi động toàn bộ ứng dụng với H2 (profile "bench") 1 lần cho mỗi fork, kèm thực đơn mẫu
+@State(Scope.Benchmark)
+public class AppState {
+
+    public static final int MENU_SIZE = 30;
+
+    public ConfigurableApplicationContext context;
+    public List<MenuItem> menuItems;
+
+    private final AtomicInteger tableSeq = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplication app = new SpringApplication(QuanNuocApplication.class);
+        app.setAdditionalProfiles("bench");
+        context = app.run();
+
+        CategoryRepository categories = context.getBean(CategoryRepository.class);
+        MenuItemRepository menu = context.getBean(MenuItemRepository.class);
+        Category drinks = categories.save(Category.builder().name("Đồ uống").build());
+        menuItems = new ArrayList<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            menuItems.add(menu.save(MenuItem.builder()
+                    .name("Món " + i)
+                    .price(10_000L + 1_000L * i)
+                    .category(drinks)
+                    .build()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public DiningTable newTable() {
+        return bean(DiningTableRepository.class)
+                .save(DiningTable.builder().name("Bàn bench " + tableSeq.incrementAndGet()).build());
+    }
+}
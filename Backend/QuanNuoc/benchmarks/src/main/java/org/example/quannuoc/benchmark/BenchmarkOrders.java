@@ -0,0 +1,40 @@
+package org.example.quannuoc.benchmark;
+
+import org.example.quannuoc.dto.request.AddOrderItemsRequest;
+import org.example.quannuoc.dto.request.OrderItemRequest;
+import org.example.quannuoc.dto.request.OrderRequest;
+import org.example.quannuoc.entity.MenuItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Dựng request mẫu cho các benchmark
+public final class BenchmarkOrders {
+
+    private BenchmarkOrders() {
+    }
+
+    public static List<OrderItemRequest> lines(List<MenuItem> menuItems, int count) {
+        List<OrderItemRequest> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrderItemRequest line = new OrderItemRequest();
+            line.setMenuItemId(menuItems.get(i % menuItems.size()).getId());
+            line.setQuantity(1 + i % 3);
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    public static OrderRequest open(Long tableId, List<MenuItem> menuItems, int count) {
+        OrderRequest request = new OrderRequest();
+        request.setTableId(tableId);
+        request.setItems(lines(menuItems, count));
+        return request;
+    }
+
+    public static AddOrderItemsRequest add(List<MenuItem> menuItems, int count) {
+        AddOrderItemsRequest request = new AddOrderItemsRequest();
+        request.setItems(lines(menuItems, count));
+        return request;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.quannuoc.benchmark;
+
+import org.example.quannuoc.QuanNuocApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// So sánh throughput HTTP giữa platform thread (Tomcat 200 thread) và virtual thread với 1000 client đồng thời.
+// Mặc định chạy trên H2 in-memory (không có độ trễ mạng nên chênh lệch nhỏ); để đo sát production,
+// trỏ vào PostgreSQL: -Dspring.datasource.url=jdbc:postgresql://... -Dspring.datasource.driver-class-name=org.postgresql.Driver
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpConcurrencyBenchmark {
+
+    private static final int CLIENTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clients;
+    private HttpClient http;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplication app = new SpringApplication(QuanNuocApplication.class);
+        app.setAdditionalProfiles("bench");
+        // Tham số dòng lệnh để đè lên application-bench.properties (vốn tắt web server)
+        context = app.run(
+                "--spring.main.web-application-type=servlet",
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // Đủ chỗ cho 1000 kết nối cùng lúc ở cả 2 chế độ
+                "--server.tomcat.accept-count=" + CLIENTS);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+        http = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(10)).build();
+        // Endpoint đọc DB thật (không đi qua cache trong bộ nhớ)
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/history?page=0&size=20"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        clients.close();
+        context.close();
+    }
+
+    // 1 lần gọi = 1000 request đồng thời; JMH báo ops/s = request/s,
+    // kèm số request thành công / lỗi (503 quá tải, 500 hết connection...) để không tính nhầm lỗi nhanh là throughput
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void concurrentClients(Outcome outcome) {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            calls[i] = http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error == null && response.statusCode() == 200) {
+                            outcome.ok.increment();
+                        } else {
+                            outcome.failed.increment();
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(calls).join();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        // Callback chạy trên nhiều thread của HttpClient nên dùng LongAdder
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok.reset();
+            failed.reset();
+        }
+
+        public long ok() {
+            return ok.sum();
+        }
+
+        public long failed() {
+            return failed.sum();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.quannuoc.benchmark;
+
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Luồng đầy đủ trên H2: mở order → thêm món → thanh toán (mỗi thread dùng 1 bàn riêng)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderFlowBenchmark {
+
+    @Param({"1", "10"})
+    public int linesPerCall;
+
+    private OrderService orderService;
+    private AppState app;
+    private Long tableId;
+    private PayOrderRequest pay;
+
+    @Setup(Level.Trial)
+    public void setUp(AppState app) {
+        this.app = app;
+        orderService = app.bean(OrderService.class);
+        tableId = app.newTable().getId();
+        pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+    }
+
+    @Benchmark
+    public OrderResponse createAddPay() {
+        OrderResponse order = orderService.createOrder(BenchmarkOrders.open(tableId, app.menuItems, linesPerCall));
+        orderService.addItemsToOrder(order.getId(), BenchmarkOrders.add(app.menuItems, linesPerCall));
+        return orderService.payOrder(order.getId(), pay);
+    }
+}
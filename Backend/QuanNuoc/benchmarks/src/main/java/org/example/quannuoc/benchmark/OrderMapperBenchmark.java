@@ -0,0 +1,54 @@
+package org.example.quannuoc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.quannuoc.dto.response.ApiResponse;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.mapper.OrderMapper;
+import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.service.MenuCatalog;
+import org.example.quannuoc.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// OrderMapper.toResponse và JSON hóa ApiResponse<OrderResponse> trên 1 order đã nạp sẵn
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"5", "20", "60"})
+    public int lines;
+
+    private Order order;
+    private MenuCatalog menuCatalog;
+    private ObjectMapper objectMapper;
+    private ApiResponse<OrderResponse> response;
+
+    @Setup(Level.Trial)
+    public void setUp(AppState app) {
+        OrderService orderService = app.bean(OrderService.class);
+        Long orderId = orderService.createOrder(
+                BenchmarkOrders.open(app.newTable().getId(), app.menuItems, lines)).getId();
+        // Nạp order + bàn + món đầy đủ để toResponse không chạm DB
+        order = app.bean(OrderRepository.class).findWithItemsByIdIn(List.of(orderId)).get(0);
+        menuCatalog = app.bean(MenuCatalog.class);
+        objectMapper = app.bean(ObjectMapper.class);
+        response = ApiResponse.success(OrderMapper.toResponse(order, menuCatalog));
+    }
+
+    @Benchmark
+    public OrderResponse toResponse() {
+        return OrderMapper.toResponse(order, menuCatalog);
+    }
+
+    @Benchmark
+    public byte[] serializeApiResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,465 @@
+package org.example.quannuoc.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.quannuoc.QuanNuocApplication;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.example.quannuoc.repository.MenuItemRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Giả lập ca tối: N bàn (mặc định 80) mở order, gọi món theo đợt, bếp nhận/trả món, chuyển/gộp/tách bàn
+// và thanh toán — toàn bộ qua HTTP vào OrderController của ứng dụng chạy thật (profile "bench", H2 in-memory).
+// Mô hình vòng kín: mỗi nhóm khách là 1 virtual thread, nghỉ ngẫu nhiên giữa các thao tác (rush.think-ms).
+// Kết thúc in bảng p50/p99/lỗi theo endpoint và ghi JSON vào rush.report-dir; rush.baseline=<file json> để so sánh.
+//   cd benchmarks && mvn -B package exec:exec@dinner-rush -Drush.duration-seconds=120
+// Tham số dòng lệnh và -Dapp.args được chuyển nguyên cho Spring, vd. chạy trên PostgreSQL:
+//   -Dapp.args="--spring.datasource.url=jdbc:postgresql://... --spring.datasource.driver-class-name=org.postgresql.Driver"
+public final class DinnerRushSimulation {
+
+    private static final int MENU_SIZE = 30;
+    private static final String[] PAYMENT_METHODS = {"CASH", "CASH", "CARD", "TRANSFER"};
+
+    private final int tables = Integer.getInteger("rush.tables", 80);
+    private final int durationSeconds = Integer.getInteger("rush.duration-seconds", 120);
+    private final int warmupSeconds = Integer.getInteger("rush.warmup-seconds", 15);
+    private final long seed = Long.getLong("rush.seed", 42L);
+    private final int kitchenStations = Integer.getInteger("rush.kitchen-stations", 3);
+    private final int thinkMs = Integer.getInteger("rush.think-ms", 300);
+    private final Path reportDir = Path.of(System.getProperty("rush.report-dir", "target/dinner-rush"));
+    private final String baseline = System.getProperty("rush.baseline", "");
+
+    private final LoadRecorder recorder = new LoadRecorder();
+    private final BlockingQueue<Long> freeTables = new LinkedBlockingQueue<>();
+    private final Map<String, LongAdder> shift = new LinkedHashMap<>();
+    // Order không thanh toán được kể cả trong warm-up — để đối soát cuối ca
+    private final LongAdder stuckOrders = new LongAdder();
+    private List<Long> menuIds;
+    private PosClient client;
+
+    private volatile long closingAt;
+    private volatile boolean kitchenClosed;
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new DinnerRushSimulation().run(args));
+    }
+
+    private int run(String[] springArgs) throws Exception {
+        for (String counter : List.of("ordersOpened", "ordersPaid", "linesAdded", "linesUpdated", "linesRemoved",
+                "moves", "merges", "splits", "itemsServed", "abandonedOrders")) {
+            shift.put(counter, new LongAdder());
+        }
+        SpringApplication app = new SpringApplication(QuanNuocApplication.class);
+        app.setAdditionalProfiles("bench");
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=servlet",
+                "--server.port=0",
+                "--app.journal.dir=" + reportDir.resolve("journal")));
+        args.addAll(List.of(springArgs));
+        String extra = System.getProperty("app.args", "").trim();
+        if (!extra.isEmpty()) {
+            args.addAll(List.of(extra.split("\\s+")));
+        }
+        try (ConfigurableApplicationContext context = app.run(args.toArray(String[]::new));
+             ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder().executor(threads).connectTimeout(Duration.ofSeconds(10)).build();
+            client = new PosClient(http, port, recorder);
+            return simulate(threads);
+        }
+    }
+
+    // Thực đơn + N bàn ghi thẳng qua repository; chỉ luồng order mới đi qua HTTP
+    private void seed(ConfigurableApplicationContext context) {
+        CategoryRepository categories = context.getBean(CategoryRepository.class);
+        MenuItemRepository menu = context.getBean(MenuItemRepository.class);
+        DiningTableRepository diningTables = context.getBean(DiningTableRepository.class);
+        List<Category> groups = Stream.of("Cà phê", "Trà", "Sinh tố", "Đồ ăn vặt")
+                .map(name -> categories.save(Category.builder().name(name).build()))
+                .toList();
+        menuIds = new ArrayList<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            menuIds.add(menu.save(MenuItem.builder()
+                    .name("Món " + i)
+                    .price(15_000L + 1_000L * i)
+                    .category(groups.get(i % groups.size()))
+                    .build()).getId());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= tables; i++) {
+            ids.add(diningTables.save(DiningTable.builder().name("Bàn " + i).build()).getId());
+        }
+        Collections.shuffle(ids, new Random(seed));
+        freeTables.addAll(ids);
+    }
+
+    private int simulate(ExecutorService threads) throws Exception {
+        // 1/8 số bàn để trống cho chuyển/tách/gộp
+        int parties = Math.max(1, tables - tables / 8);
+        long start = System.nanoTime();
+        closingAt = start + TimeUnit.SECONDS.toNanos(warmupSeconds + durationSeconds);
+        List<Future<?>> guests = new ArrayList<>();
+        for (int i = 0; i < parties; i++) {
+            Random rnd = new Random(seed * 31 + i);
+            guests.add(threads.submit(() -> party(rnd)));
+        }
+        List<Future<?>> staff = new ArrayList<>();
+        for (int i = 0; i < kitchenStations; i++) {
+            Random rnd = new Random(seed * 17 + i);
+            staff.add(threads.submit(() -> kitchen(rnd)));
+        }
+        staff.add(threads.submit(this::dashboard));
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        recorder.reset();
+        shift.values().forEach(LongAdder::reset);
+        long measureStart = System.nanoTime();
+        String startedAt = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        System.out.printf("Warm-up xong, đo %ds với %d nhóm khách / %d bàn...%n", durationSeconds, parties, tables);
+
+        // Hết giờ: các nhóm khách thanh toán rồi về; bếp làm nốt món còn chờ
+        for (Future<?> guest : guests) {
+            guest.get();
+        }
+        kitchenClosed = true;
+        for (Future<?> worker : staff) {
+            worker.get();
+        }
+        double measured = (System.nanoTime() - measureStart) / 1e9;
+        List<LoadReport.EndpointStats> endpoints = recorder.snapshot(measured);
+
+        // Đối soát cuối ca (không tính vào số liệu): không còn order mở, tổng tiền khớp với các dòng
+        JsonNode open = client.active();
+        JsonNode drift = client.totalDrift();
+        Map<String, Long> shiftCounts = new LinkedHashMap<>();
+        shift.forEach((name, n) -> shiftCounts.put(name, n.sum()));
+        shiftCounts.put("openOrdersAtClose", open != null ? (long) open.size() : -1L);
+        shiftCounts.put("totalDrift", drift != null ? (long) drift.size() : -1L);
+
+        String[] commit = gitCommit();
+        LoadReport report = new LoadReport(commit[0], Boolean.parseBoolean(commit[1]), startedAt, config(),
+                Math.round(measured * 10) / 10.0, LoadReport.totals(endpoints, measured), shiftCounts, endpoints);
+        report.print(System.out);
+        Path file = report.write(reportDir);
+        System.out.println("Báo cáo: " + file.toAbsolutePath());
+        if (!baseline.isBlank()) {
+            report.printComparison(LoadReport.read(Path.of(baseline)), System.out);
+        }
+        boolean consistent = shiftCounts.get("openOrdersAtClose") == stuckOrders.sum()
+                && shiftCounts.get("totalDrift") == 0;
+        if (!consistent) {
+            System.out.println("Cảnh báo: dữ liệu cuối ca không khớp (order còn mở / lệch tổng tiền)");
+        }
+        return consistent ? 0 : 1;
+    }
+
+    // ─── Các vai trong ca ────────────────────────────────────────────────────
+
+    // 1 nhóm khách nối tiếp nhau ngồi các bàn trống cho tới hết giờ
+    private void party(Random rnd) {
+        while (!closing()) {
+            Long table = takeTable(1_000);
+            if (table == null) {
+                continue;
+            }
+            Long keep = visit(rnd, table);
+            if (keep != null) {
+                freeTables.add(keep);
+            }
+        }
+    }
+
+    // Trả về bàn cần trả lại hàng chờ, null nếu order không thanh toán được (bàn bị giữ)
+    private Long visit(Random rnd, long table) {
+        JsonNode order = client.openOrder(table, lines(rnd, 1 + rnd.nextInt(4)));
+        if (order == null) {
+            return table;
+        }
+        shift.get("ordersOpened").increment();
+        long orderId = order.path("id").asLong();
+
+        int rounds = 2 + rnd.nextInt(4);
+        for (int round = 0; round < rounds && !closing(); round++) {
+            think(rnd);
+            JsonNode added = client.addItems(orderId, lines(rnd, 1 + rnd.nextInt(4)));
+            if (added == null) {
+                continue;
+            }
+            shift.get("linesAdded").increment();
+            JsonNode items = added.path("items");
+            JsonNode last = items.get(items.size() - 1);
+            int action = rnd.nextInt(100);
+            if (action < 15) {
+                if (client.updateItem(orderId, last.path("id").asLong(), 1 + rnd.nextInt(4)) != null) {
+                    shift.get("linesUpdated").increment();
+                }
+            } else if (action < 22 && items.size() > 1) {
+                if (client.removeItem(orderId, last.path("id").asLong()) != null) {
+                    shift.get("linesRemoved").increment();
+                }
+            }
+        }
+
+        int change = rnd.nextInt(100);
+        if (change < 10) {
+            table = move(table);
+        } else if (change < 18) {
+            merge(rnd, table);
+        } else if (change < 26) {
+            split(rnd, orderId);
+        }
+
+        think(rnd);
+        JsonNode bill = client.tableOrder(table);
+        long billId = bill != null ? bill.path("id").asLong() : orderId;
+        if (!settle(rnd, billId)) {
+            abandon();
+            return null;
+        }
+        return table;
+    }
+
+    // Khách xin đổi sang bàn trống khác
+    private long move(long table) {
+        Long target = freeTables.poll();
+        if (target == null) {
+            return table;
+        }
+        if (client.move(table, target) == null) {
+            freeTables.add(target);
+            return table;
+        }
+        shift.get("moves").increment();
+        freeTables.add(table);
+        return target;
+    }
+
+    // Nhóm bạn ngồi bàn bên cạnh gọi món riêng rồi gộp sang bàn này; bàn kia trống lại
+    private void merge(Random rnd, long table) {
+        Long friends = freeTables.poll();
+        if (friends == null) {
+            return;
+        }
+        JsonNode other = client.openOrder(friends, lines(rnd, 1 + rnd.nextInt(3)));
+        if (other == null) {
+            freeTables.add(friends);
+            return;
+        }
+        shift.get("ordersOpened").increment();
+        think(rnd);
+        if (client.merge(friends, table) != null) {
+            shift.get("merges").increment();
+            freeTables.add(friends);
+        } else if (settle(rnd, other.path("id").asLong())) {
+            freeTables.add(friends);
+        } else {
+            abandon();
+        }
+    }
+
+    // Tách một nửa số món sang bàn trống để tính tiền riêng
+    private void split(Random rnd, long orderId) {
+        JsonNode order = client.order(orderId);
+        if (order == null || order.path("items").size() < 2) {
+            return;
+        }
+        Long target = freeTables.poll();
+        if (target == null) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        order.path("items").forEach(item -> ids.add(item.path("id").asLong()));
+        Collections.shuffle(ids, rnd);
+        JsonNode separate = client.split(orderId, target, ids.subList(0, ids.size() / 2));
+        if (separate == null) {
+            freeTables.add(target);
+            return;
+        }
+        shift.get("splits").increment();
+        if (settle(rnd, separate.path("id").asLong())) {
+            freeTables.add(target);
+        } else {
+            abandon();
+        }
+    }
+
+    // Thanh toán, thử lại tối đa 3 lần nếu xung đột/lỗi tạm thời
+    private boolean settle(Random rnd, long orderId) {
+        String method = PAYMENT_METHODS[rnd.nextInt(PAYMENT_METHODS.length)];
+        for (int attempt = 0; attempt < 3; attempt++) {
+            if (client.pay(orderId, method) != null) {
+                shift.get("ordersPaid").increment();
+                return true;
+            }
+            sleep(50);
+        }
+        return false;
+    }
+
+    // 1 quầy bếp: nhận món chờ (PENDING → SERVING), làm xong thì trả món — phần lớn trả cả mẻ,
+    // đôi khi bấm "Đã phục vụ" từng món. Các quầy tranh cùng hàng chờ; món đã bị quầy khác nhận nằm trong "rejected".
+    private void kitchen(Random rnd) {
+        while (true) {
+            JsonNode page = client.pendingKitchen(20);
+            JsonNode content = page != null ? page.path("content") : null;
+            if (content == null || content.isEmpty()) {
+                if (kitchenClosed) {
+                    return;
+                }
+                sleep(50);
+                continue;
+            }
+            List<Long> ids = new ArrayList<>();
+            content.forEach(item -> ids.add(item.path("id").asLong()));
+            JsonNode claimed = client.transition(ids, "SERVING");
+            if (claimed == null) {
+                continue;
+            }
+            sleep(20 + rnd.nextInt(80));
+            JsonNode changed = claimed.path("changed");
+            if (changed.isEmpty()) {
+                continue;
+            }
+            if (rnd.nextInt(100) < 80) {
+                List<Long> cooked = new ArrayList<>();
+                changed.forEach(item -> cooked.add(item.path("id").asLong()));
+                JsonNode served = client.transition(cooked, "SERVED");
+                if (served != null) {
+                    shift.get("itemsServed").add(served.path("changed").size());
+                }
+            } else {
+                for (JsonNode item : changed) {
+                    if (client.serve(item.path("orderId").asLong(), item.path("id").asLong()) != null) {
+                        shift.get("itemsServed").increment();
+                    }
+                }
+            }
+        }
+    }
+
+    // Màn hình thu ngân: danh sách order đang mở mỗi giây, lịch sử mỗi 2 giây
+    private void dashboard() {
+        int tick = 0;
+        while (!kitchenClosed) {
+            client.active();
+            if (tick++ % 2 == 0) {
+                client.history(20);
+            }
+            sleep(1_000);
+        }
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    private void abandon() {
+        shift.get("abandonedOrders").increment();
+        stuckOrders.increment();
+    }
+
+    private boolean closing() {
+        return System.nanoTime() - closingAt >= 0;
+    }
+
+    private Long takeTable(long timeoutMs) {
+        try {
+            return freeTables.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private List<Map<String, Object>> lines(Random rnd, int count) {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("menuItemId", menuIds.get(rnd.nextInt(menuIds.size())));
+            line.put("quantity", 1 + rnd.nextInt(3));
+            if (rnd.nextInt(10) == 0) {
+                line.put("note", "Ít đá");
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    // Thời gian nghỉ phân phối mũ quanh thinkMs, chặn trên 5 lần để 1 nhóm không ngồi quá lâu
+    private void think(Random rnd) {
+        if (!closing()) {
+            sleep((long) Math.min(thinkMs * 5.0, -thinkMs * Math.log(1 - rnd.nextDouble())));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, String> config() {
+        Map<String, String> config = new LinkedHashMap<>();
+        config.put("tables", String.valueOf(tables));
+        config.put("durationSeconds", String.valueOf(durationSeconds));
+        config.put("warmupSeconds", String.valueOf(warmupSeconds));
+        config.put("seed", String.valueOf(seed));
+        config.put("kitchenStations", String.valueOf(kitchenStations));
+        config.put("thinkMs", String.valueOf(thinkMs));
+        config.put("datasource", System.getProperty("app.args", "").contains("datasource.url") ? "custom" : "h2");
+        return config;
+    }
+
+    // {commit ngắn, có thay đổi chưa commit}; ngoài git repo → "unknown"
+    private static String[] gitCommit() {
+        String commit = git("rev-parse", "--short", "HEAD");
+        String status = git("status", "--porcelain", "--untracked-files=no");
+        return new String[]{commit.isEmpty() ? "unknown" : commit, String.valueOf(!status.isEmpty())};
+    }
+
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                output = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+            }
+            return process.waitFor() == 0 ? output : "";
+        } catch (IOException e) {
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+}
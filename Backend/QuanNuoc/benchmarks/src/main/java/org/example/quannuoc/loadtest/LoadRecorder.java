@@ -0,0 +1,85 @@
+package org.example.quannuoc.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ghi độ trễ + mã HTTP của từng request, gom theo endpoint (method + route template, vd. "POST /api/orders/{id}/items").
+// Giữ toàn bộ mẫu (1 ca vài trăm nghìn request) để tính percentile chính xác bằng cách sắp xếp, không xấp xỉ.
+// Lỗi = status ngoài 2xx; status 0 = lỗi mạng/timeout phía client.
+final class LoadRecorder {
+
+    private volatile ConcurrentHashMap<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        endpoints.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, status);
+    }
+
+    // Bỏ số liệu giai đoạn warm-up (JIT, cache, pool chưa đầy)
+    void reset() {
+        endpoints = new ConcurrentHashMap<>();
+    }
+
+    List<LoadReport.EndpointStats> snapshot(double seconds) {
+        List<LoadReport.EndpointStats> result = new ArrayList<>();
+        endpoints.forEach((endpoint, samples) -> result.add(samples.stats(endpoint, seconds)));
+        result.sort(Comparator.comparing(LoadReport.EndpointStats::endpoint));
+        return result;
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        synchronized void add(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        synchronized LoadReport.EndpointStats stats(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            statuses.forEach((status, n) -> byStatus.put(String.valueOf(status), n));
+            return new LoadReport.EndpointStats(endpoint, count,
+                    round(count / seconds),
+                    millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)),
+                    millis(count > 0 ? sorted[count - 1] : 0),
+                    errors,
+                    count > 0 ? round((double) errors / count) : 0,
+                    byStatus);
+        }
+    }
+
+    // Nearest-rank: phần tử thứ ceil(p·n)
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
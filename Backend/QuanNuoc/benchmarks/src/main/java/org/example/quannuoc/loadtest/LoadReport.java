@@ -0,0 +1,110 @@
+package org.example.quannuoc.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Kết quả 1 lần chạy ca tối, ghi ra JSON để so sánh giữa các commit (commit + cấu hình nằm ngay trong file).
+// Chỉ so được 2 báo cáo cùng cấu hình (số bàn, seed, thời lượng) và cùng máy.
+record LoadReport(String commit,
+                  boolean dirty,
+                  String startedAt,
+                  Map<String, String> config,
+                  double measuredSeconds,
+                  Totals totals,
+                  Map<String, Long> shift,
+                  List<EndpointStats> endpoints) {
+
+    record Totals(long requests, double throughput, long errors, double errorRate) {
+    }
+
+    record EndpointStats(String endpoint,
+                         long count,
+                         double throughput,
+                         double p50Ms,
+                         double p90Ms,
+                         double p99Ms,
+                         double maxMs,
+                         long errors,
+                         double errorRate,
+                         Map<String, Long> statuses) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static Totals totals(List<EndpointStats> endpoints, double seconds) {
+        long requests = endpoints.stream().mapToLong(EndpointStats::count).sum();
+        long errors = endpoints.stream().mapToLong(EndpointStats::errors).sum();
+        return new Totals(requests,
+                Math.round(requests / seconds * 10) / 10.0,
+                errors,
+                requests > 0 ? Math.round((double) errors / requests * 100_000) / 100_000.0 : 0);
+    }
+
+    Path write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        String stamp = startedAt.replaceAll("[^0-9]", "").substring(0, 14);
+        Path file = dir.resolve("dinner-rush-" + commit + (dirty ? "-dirty" : "") + "-" + stamp + ".json");
+        MAPPER.writeValue(file.toFile(), this);
+        return file;
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nCa tối — commit %s%s, %.0fs đo, %s%n", commit, dirty ? " (có thay đổi chưa commit)" : "",
+                measuredSeconds, config);
+        out.printf("%-48s %9s %9s %9s %9s %9s %9s %8s%n",
+                "Endpoint", "Số req", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "Lỗi %");
+        for (EndpointStats e : endpoints) {
+            out.printf("%-48s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %8.3f%s%n",
+                    e.endpoint(), e.count(), e.throughput(), e.p50Ms(), e.p90Ms(), e.p99Ms(), e.maxMs(),
+                    e.errorRate() * 100, e.errors() > 0 ? "  " + e.statuses() : "");
+        }
+        out.printf("%-48s %9d %9.1f %49.3f%n", "TỔNG", totals.requests(), totals.throughput(),
+                totals.errorRate() * 100);
+        out.println("Ca: " + shift);
+    }
+
+    // Chênh lệch so với báo cáo mốc: dương ở p50/p99 = chậm hơn, âm ở req/s = giảm throughput
+    void printComparison(LoadReport baseline, PrintStream out) {
+        if (!baseline.config().equals(config)) {
+            out.println("Cảnh báo: cấu hình khác báo cáo mốc " + baseline.config() + " — so sánh chỉ mang tính tham khảo");
+        }
+        out.printf("%nSo với commit %s (%s)%n", baseline.commit(), baseline.startedAt());
+        out.printf("%-48s %10s %10s %10s %12s%n", "Endpoint", "req/s", "p50", "p99", "Lỗi % (pt)");
+        Map<String, EndpointStats> before = baseline.endpoints().stream()
+                .collect(Collectors.toMap(EndpointStats::endpoint, Function.identity()));
+        for (EndpointStats now : endpoints) {
+            EndpointStats was = before.get(now.endpoint());
+            if (was == null) {
+                out.printf("%-48s %s%n", now.endpoint(), "(mới — không có trong báo cáo mốc)");
+                continue;
+            }
+            out.printf("%-48s %10s %10s %10s %+12.3f%n", now.endpoint(),
+                    change(was.throughput(), now.throughput()),
+                    change(was.p50Ms(), now.p50Ms()),
+                    change(was.p99Ms(), now.p99Ms()),
+                    (now.errorRate() - was.errorRate()) * 100);
+        }
+        out.printf("%-48s %10s %35s%n", "TỔNG", change(baseline.totals().throughput(), totals.throughput()),
+                String.format("%+.3f", (totals.errorRate() - baseline.totals().errorRate()) * 100));
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return after == 0 ? "0%" : "n/a";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
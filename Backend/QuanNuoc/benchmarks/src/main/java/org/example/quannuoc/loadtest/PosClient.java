@@ -0,0 +1,136 @@
+package org.example.quannuoc.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Gọi OrderController qua HTTP như máy POS/màn hình bếp; mỗi lời gọi được ghi vào LoadRecorder
+// theo route template để các bàn khác nhau gom về cùng 1 endpoint. Trả về trường "data" của ApiResponse,
+// null nếu request lỗi (đã được tính vào tỉ lệ lỗi) — kịch bản tự quyết định bỏ qua hay thử lại.
+final class PosClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String base;
+    private final LoadRecorder recorder;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    PosClient(HttpClient http, int port, LoadRecorder recorder) {
+        this.http = http;
+        this.base = "http://localhost:" + port + "/api/orders";
+        this.recorder = recorder;
+    }
+
+    JsonNode openOrder(long tableId, List<Map<String, Object>> lines) {
+        return call("POST /api/orders", "POST", "", Map.of("tableId", tableId, "items", lines));
+    }
+
+    JsonNode addItems(long orderId, List<Map<String, Object>> lines) {
+        return call("POST /api/orders/{id}/items", "POST", "/" + orderId + "/items", Map.of("items", lines));
+    }
+
+    JsonNode updateItem(long orderId, long itemId, int quantity) {
+        return call("PUT /api/orders/{orderId}/items/{itemId}", "PUT", "/" + orderId + "/items/" + itemId,
+                Map.of("quantity", quantity));
+    }
+
+    JsonNode removeItem(long orderId, long itemId) {
+        return call("DELETE /api/orders/{orderId}/items/{itemId}", "DELETE", "/" + orderId + "/items/" + itemId, null);
+    }
+
+    JsonNode tableOrder(long tableId) {
+        return call("GET /api/orders/table/{tableId}", "GET", "/table/" + tableId, null);
+    }
+
+    JsonNode order(long orderId) {
+        return call("GET /api/orders/{id}", "GET", "/" + orderId, null);
+    }
+
+    JsonNode pay(long orderId, String method) {
+        return call("PATCH /api/orders/{id}/pay", "PATCH", "/" + orderId + "/pay", Map.of("paymentMethod", method));
+    }
+
+    JsonNode move(long sourceTableId, long targetTableId) {
+        return call("POST /api/orders/move", "POST", "/move",
+                Map.of("sourceTableId", sourceTableId, "targetTableId", targetTableId));
+    }
+
+    JsonNode merge(long sourceTableId, long targetTableId) {
+        return call("POST /api/orders/merge", "POST", "/merge",
+                Map.of("sourceTableId", sourceTableId, "targetTableId", targetTableId));
+    }
+
+    JsonNode split(long orderId, long targetTableId, List<Long> orderItemIds) {
+        return call("POST /api/orders/{id}/split", "POST", "/" + orderId + "/split",
+                Map.of("targetTableId", targetTableId, "orderItemIds", orderItemIds));
+    }
+
+    JsonNode pendingKitchen(int size) {
+        return call("GET /api/orders/kitchen/pending", "GET", "/kitchen/pending?page=0&size=" + size, null);
+    }
+
+    JsonNode transition(List<Long> orderItemIds, String status) {
+        return call("PATCH /api/orders/kitchen/items/status", "PATCH", "/kitchen/items/status",
+                Map.of("orderItemIds", orderItemIds, "status", status));
+    }
+
+    JsonNode serve(long orderId, long itemId) {
+        return call("PATCH /api/orders/{orderId}/items/{itemId}/serve", "PATCH",
+                "/" + orderId + "/items/" + itemId + "/serve", null);
+    }
+
+    JsonNode active() {
+        return call("GET /api/orders/active", "GET", "/active", null);
+    }
+
+    JsonNode history(int size) {
+        return call("GET /api/orders/history", "GET", "/history?page=0&size=" + size, null);
+    }
+
+    JsonNode totalDrift() {
+        return call("GET /api/orders/total-drift", "GET", "/total-drift", null);
+    }
+
+    private JsonNode call(String endpoint, String method, String path, Object body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json(body)))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode());
+            if (response.statusCode() / 100 != 2) {
+                return null;
+            }
+            return mapper.readTree(response.body()).path("data");
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, 0);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// OrderService.calculateTotalAmount — thuần CPU, không cần Spring context
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"5", "20", "60"})
+    public int lines;
+
+    private List<OrderItem> items;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(lines);
+        OrderItemStatus[] statuses = OrderItemStatus.values();
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItem.builder()
+                    .menuItem(MenuItem.builder().id((long) i).build())
+                    .quantity(1 + i % 3)
+                    .priceAtOrder(10_000L + 1_000L * i)
+                    .status(statuses[i % statuses.length])
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public long calculateTotalAmount() {
+        return OrderService.calculateTotalAmount(items);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.quannuoc.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// 2 pool: primary (spring.datasource.*) cho luồng POS ghi, read (app.datasource.read.*) cho báo cáo/lịch sử.
+// DataSource chính (JPA, Flyway, JdbcTemplate) = LazyConnectionDataSourceProxy → ReadWriteRoutingDataSource.
+// Không khai báo app.datasource.read.url thì read pool trỏ vào chính primary — vẫn tách pool,
+// báo cáo nặng không chiếm hết connection của luồng ghi.
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${app.datasource.read.url:}") String url,
+                                           @Value("${app.datasource.read.username:}") String username,
+                                           @Value("${app.datasource.read.password:}") String password) {
+        boolean samePrimary = url.isBlank();
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(samePrimary ? properties.determineUrl() : url)
+                .username(samePrimary || username.isBlank() ? properties.determineUsername() : username)
+                .password(samePrimary ? properties.determinePassword() : password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("readDataSource") DataSource read,
+                                 ReplicaLagMonitor lagMonitor,
+                                 @Value("${app.datasource.read.max-lag-ms:2000}") long maxLagMs,
+                                 @Value("${app.datasource.read.url:}") String readUrl) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, read, lagMonitor, maxLagMs, !readUrl.isBlank()));
+    }
+
+    // Độ trễ read pool (NaN khi không đo được) và số transaction readOnly đi read pool / phải về primary
+    @Bean
+    public MeterBinder readPoolMetrics(ReplicaLagMonitor lagMonitor) {
+        return registry -> {
+            Gauge.builder("quannuoc.db.read.lag", lagMonitor,
+                            m -> m.getLagMs() == Long.MAX_VALUE ? Double.NaN : m.getLagMs())
+                    .description("Độ trễ tối đa của read pool so với primary (ms)")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("quannuoc.db.read.routes", lagMonitor, ReplicaLagMonitor::getReadRouteCount)
+                    .description("Số transaction readOnly theo pool thực chạy (primary = replica trễ/lỗi)")
+                    .tag("target", "read")
+                    .register(registry);
+            FunctionCounter.builder("quannuoc.db.read.routes", lagMonitor, ReplicaLagMonitor::getPrimaryFallbackCount)
+                    .description("Số transaction readOnly theo pool thực chạy (primary = replica trễ/lỗi)")
+                    .tag("target", "primary")
+                    .register(registry);
+        };
+    }
+}
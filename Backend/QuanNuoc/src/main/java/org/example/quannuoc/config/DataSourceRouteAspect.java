@@ -0,0 +1,40 @@
+package org.example.quannuoc.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.quannuoc.config.ReadWriteRoutingDataSource.Request;
+import org.example.quannuoc.util.DataSourceRoute;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Ghi route của method vào ReadWriteRoutingDataSource trong suốt lời gọi; lồng nhau thì khôi phục route ngoài khi ra.
+// Chạy trước (bọc ngoài) TransactionInterceptor — connection thật chỉ được lấy ở câu lệnh đầu tiên
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class DataSourceRouteAspect {
+
+    @Around("@annotation(route)")
+    public Object route(ProceedingJoinPoint joinPoint, DataSourceRoute route) throws Throwable {
+        return proceed(joinPoint, Request.of(route));
+    }
+
+    // Method @Service có @Transactional(readOnly = true) mà không khai báo @DataSourceRoute → READ, độ trễ mặc định
+    @Around("@within(org.springframework.stereotype.Service) && @annotation(transactional) " +
+            "&& !@annotation(org.example.quannuoc.util.DataSourceRoute)")
+    public Object readOnlyService(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        return transactional.readOnly() ? proceed(joinPoint, Request.READ_ONLY_SERVICE) : joinPoint.proceed();
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, Request request) throws Throwable {
+        Request outer = ReadWriteRoutingDataSource.enter(request);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.exit(outer);
+        }
+    }
+}
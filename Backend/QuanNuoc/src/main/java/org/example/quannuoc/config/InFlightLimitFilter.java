@@ -0,0 +1,69 @@
+package org.example.quannuoc.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.quannuoc.dto.response.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Chỉ bật cùng virtual thread: Tomcat không còn giới hạn số thread nên 1k request có thể cùng lúc
+// xếp hàng chờ connection Hikari. Giới hạn số request /api đang xử lý, quá hạn chờ thì trả 503 ngay.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class InFlightLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+    private final ObjectMapper objectMapper;
+
+    public InFlightLimitFilter(
+            @Value("${app.http.max-in-flight:80}") int maxInFlight,
+            @Value("${app.http.queue-timeout-ms:2000}") long queueTimeoutMs,
+            ObjectMapper objectMapper) {
+        this.permits = new Semaphore(maxInFlight, true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getWriter(),
+                    ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(), "Hệ thống đang quá tải, vui lòng thử lại"));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
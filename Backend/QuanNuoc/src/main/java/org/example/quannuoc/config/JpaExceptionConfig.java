@@ -0,0 +1,47 @@
+package org.example.quannuoc.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.SQLException;
+
+// Mặc định HibernateJpaDialect dịch mọi vi phạm ràng buộc thành DataIntegrityViolationException chung chung.
+// Tách riêng trùng khóa (SQLState 23505, cả PostgreSQL lẫn H2) thành DuplicateKeyException để @RetryOnConflict
+// chỉ thử lại cuộc đua unique index; lỗi khác trả null → dịch như cũ.
+@Configuration
+public class JpaExceptionConfig {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @Bean
+    public static BeanPostProcessor duplicateKeyTranslation() {
+        SQLExceptionTranslator translator = (task, sql, ex) -> isUniqueViolation(ex)
+                ? new DuplicateKeyException(task + (sql != null ? "; SQL [" + sql + "]" : ""), ex)
+                : null;
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HibernateJpaVendorAdapter adapter
+                        && adapter.getJpaDialect() instanceof HibernateJpaDialect dialect) {
+                    dialect.setJdbcExceptionTranslator(translator);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Lỗi trong batch JDBC có thể nằm ở getNextException
+    private static boolean isUniqueViolation(SQLException ex) {
+        for (SQLException e = ex; e != null; e = e.getNextException()) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.quannuoc.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.repository.OrderItemRepository;
+import org.example.quannuoc.service.OrderPartitionMaintenance;
+import org.example.quannuoc.service.OrderTotalAuditService;
+import org.example.quannuoc.service.TableBoard;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Gauge nghiệp vụ cho Prometheus. Timer HTTP (http.server.requests) và repository
+// (spring.data.repository.invocations) do Actuator tự gắn — cấu hình histogram trong application.properties
+@Configuration
+public class MetricsConfig {
+
+    // Order mở / bàn có khách lấy từ sơ đồ bàn trong bộ nhớ; món chờ bếp đếm trên DB primary mỗi lần scrape
+    // (gọi thẳng repository, không qua method service readOnly nên không bị chuyển sang read pool);
+    // lệch tổng tiền lấy kết quả lần đối soát gần nhất (OrderTotalAuditService đọc ở primary)
+    @Bean
+    public MeterBinder businessMetrics(TableBoard tableBoard, OrderItemRepository orderItemRepository,
+                                       OrderTotalAuditService orderTotalAuditService,
+                                       OrderPartitionMaintenance orderPartitionMaintenance) {
+        return registry -> {
+            Gauge.builder("quannuoc.orders.open", tableBoard, TableBoard::countOpenOrders)
+                    .description("Số order chưa thanh toán")
+                    .register(registry);
+            Gauge.builder("quannuoc.tables.occupied", tableBoard, TableBoard::countOccupied)
+                    .description("Số bàn đang có khách")
+                    .register(registry);
+            Gauge.builder("quannuoc.kitchen.pending", orderItemRepository,
+                            r -> r.countByStatusAndOrderPaidAtIsNull(OrderItemStatus.PENDING))
+                    .description("Số món đang chờ bếp")
+                    .register(registry);
+            Gauge.builder("quannuoc.orders.total_drift", orderTotalAuditService, OrderTotalAuditService::getLastDriftCount)
+                    .description("Số order lệch tổng tiền ở lần đối soát gần nhất")
+                    .register(registry);
+            Gauge.builder("quannuoc.order_items.orphans", orderPartitionMaintenance, OrderPartitionMaintenance::getLastOrphanCount)
+                    .description("Số dòng món không còn order ở lần bảo trì partition gần nhất")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.quannuoc.config;
+
+import org.example.quannuoc.util.DataSourceRoute;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Chọn pool khi connection thật được lấy: transaction readOnly mở từ method service (DataSourceRouteAspect ghi route)
+// → READ nếu replica đủ mới, còn lại → PRIMARY. Transaction readOnly mà Spring Data tự mở quanh lời gọi repository
+// (SimpleJpaRepository) không có route nên vẫn ở primary.
+// Phải nằm sau LazyConnectionDataSourceProxy: cờ readOnly của transaction chỉ được gắn sau khi
+// JpaTransactionManager mở transaction (và xin connection), proxy hoãn việc lấy connection tới câu lệnh đầu tiên.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, READ
+    }
+
+    // Route của method service đang chạy; maxLagMs = -1 → app.datasource.read.max-lag-ms
+    record Request(DataSourceRoute.Target target, long maxLagMs) {
+
+        static final Request READ_ONLY_SERVICE = new Request(DataSourceRoute.Target.READ, -1);
+
+        static Request of(DataSourceRoute route) {
+            return new Request(route.value(), route.maxLagMs());
+        }
+    }
+
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final long defaultMaxLagMs;
+    private final boolean replica;
+
+    // replica = read pool trỏ sang DB khác primary (dữ liệu có thể trễ)
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource read,
+                                      ReplicaLagMonitor lagMonitor, long defaultMaxLagMs, boolean replica) {
+        this.lagMonitor = lagMonitor;
+        this.defaultMaxLagMs = defaultMaxLagMs;
+        this.replica = replica;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.READ, read));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    static Request enter(Request request) {
+        Request outer = CURRENT.get();
+        CURRENT.set(request);
+        return outer;
+    }
+
+    static void exit(Request outer) {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        Request request = CURRENT.get();
+        if (request == null || request.target() == DataSourceRoute.Target.PRIMARY
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        long maxLagMs = request.maxLagMs() >= 0 ? request.maxLagMs() : defaultMaxLagMs;
+        Route target = lagMonitor.isWithin(maxLagMs) ? Route.READ : Route.PRIMARY;
+        lagMonitor.recordRoute(target);
+        if (target == Route.READ && replica) {
+            skipSecondLevelCachePuts();
+        }
+        return target;
+    }
+
+    // Entity đọc từ replica có thể cũ hơn primary: chỉ lấy từ second-level cache, không ghi vào
+    // (nếu không, bản cũ nằm lại trong cache tới khi hết hạn dù replica đã bắt kịp)
+    private static void skipSecondLevelCachePuts() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+}
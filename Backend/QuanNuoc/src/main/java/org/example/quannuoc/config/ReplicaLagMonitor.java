@@ -0,0 +1,84 @@
+package org.example.quannuoc.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.LongAdder;
+
+// Đo độ trễ của read pool định kỳ bằng app.datasource.read.lag-query (trả về số ms, chạy trên read pool).
+// Độ trễ coi như tăng dần kể từ lần đo gần nhất → scheduler dừng hay replica mất kết nối thì tự chuyển về primary.
+// lag-query rỗng = read pool trỏ vào chính primary (không có replica), luôn dùng được.
+@Component
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+
+    private final LongAdder readRoutes = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+
+    private volatile long lagMs = UNKNOWN;
+    private volatile long checkedAt;
+
+    public ReplicaLagMonitor(@Qualifier("readDataSource") DataSource readDataSource,
+                             @Value("${app.datasource.read.lag-query:}") String lagQuery) {
+        this.jdbcTemplate = new JdbcTemplate(readDataSource);
+        this.jdbcTemplate.setQueryTimeout(1);
+        this.lagQuery = lagQuery;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read.lag-check-ms:1000}")
+    public void check() {
+        if (lagQuery.isBlank()) {
+            return;
+        }
+        try {
+            Long lag = jdbcTemplate.queryForObject(lagQuery, Long.class);
+            if (lagMs == UNKNOWN) {
+                log.info("Read pool sẵn sàng, độ trễ {} ms", lag);
+            }
+            checkedAt = System.currentTimeMillis();
+            lagMs = lag != null ? Math.max(lag, 0) : 0;
+        } catch (DataAccessException e) {
+            if (lagMs != UNKNOWN) {
+                log.warn("Không đo được độ trễ read pool, chuyển truy vấn đọc về primary", e);
+            }
+            lagMs = UNKNOWN;
+        }
+    }
+
+    // Độ trễ tối đa có thể có lúc này: lần đo gần nhất + thời gian từ lúc đo
+    public long getLagMs() {
+        if (lagQuery.isBlank()) {
+            return 0;
+        }
+        long lag = lagMs;
+        return lag == UNKNOWN ? UNKNOWN : lag + (System.currentTimeMillis() - checkedAt);
+    }
+
+    public boolean isWithin(long maxLagMs) {
+        return getLagMs() <= maxLagMs;
+    }
+
+    public long getReadRouteCount() {
+        return readRoutes.sum();
+    }
+
+    public long getPrimaryFallbackCount() {
+        return primaryFallbacks.sum();
+    }
+
+    void recordRoute(ReadWriteRoutingDataSource.Route route) {
+        (route == ReadWriteRoutingDataSource.Route.READ ? readRoutes : primaryFallbacks).increment();
+    }
+}
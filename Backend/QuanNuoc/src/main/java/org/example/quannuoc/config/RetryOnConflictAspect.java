@@ -0,0 +1,42 @@
+package org.example.quannuoc.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.quannuoc.util.RetryOnConflict;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Chạy trước (bọc ngoài) TransactionInterceptor để mỗi lần thử là 1 transaction mới.
+// DuplicateKeyException do JpaExceptionConfig dịch từ SQLState 23505
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retry) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                // Chỉ xung đột đồng thời và cuộc đua unique index; NOT NULL / khóa ngoại / quá dài thì thử lại vẫn lỗi
+                if (attempt >= retry.maxAttempts()) {
+                    throw e;
+                }
+                log.debug("Xung đột đồng thời ở {} (lần {}), thử lại", joinPoint.getSignature().toShortString(), attempt);
+                // Lùi ngẫu nhiên để các giao dịch tranh chấp không va nhau lần nữa
+                Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+            }
+        }
+    }
+}
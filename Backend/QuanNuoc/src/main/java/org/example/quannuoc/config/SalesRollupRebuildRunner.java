@@ -0,0 +1,22 @@
+package org.example.quannuoc.config;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.service.SalesRollupService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Backfill bảng tổng hợp doanh thu khi khởi động với --app.stats.rebuild-rollup=true
+@Component
+@ConditionalOnProperty(name = "app.stats.rebuild-rollup", havingValue = "true")
+@RequiredArgsConstructor
+public class SalesRollupRebuildRunner implements ApplicationRunner {
+
+    private final SalesRollupService salesRollupService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        salesRollupService.rebuild();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.quannuoc.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Second-level cache của Hibernate trên Caffeine (JCache). Mọi region khai báo sẵn ở đây, có giới hạn số entry
+// và thời hạn; region không khai báo thì Hibernate báo lỗi khi khởi động (missing_cache_strategy=fail).
+// Entity region nên chứa đủ mọi dòng của bảng, entity bị đẩy khỏi cache thì findById lại về DB.
+// Không bật query cache: danh sách loại/món đọc từ MenuCatalog, danh sách bàn bị ghi liên tục giờ cao điểm.
+// Số liệu hit/miss từng region: GET /actuator/hibernatecache
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final List<Class<?>> CACHED_ENTITIES = List.of(Category.class, MenuItem.class, DiningTable.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.entity.max-entries:5000}") long entityMaxEntries,
+            @Value("${app.cache.entity.expire-after-write:30m}") Duration entityTtl) {
+        // URI riêng cho mỗi ApplicationContext: provider giữ CacheManager theo URI, test chạy nhiều context cùng JVM
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("quannuoc-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        CACHED_ENTITIES.forEach(entity -> cacheManager.createCache(entity.getName(), region(entityMaxEntries, entityTtl)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // Lưu tham chiếu (không copy/serialize mỗi lần get/put) — entry của Hibernate là bất biến
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setStatisticsEnabled(true)
+                .setMaximumSize(OptionalLong.of(maxEntries))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+    }
+}
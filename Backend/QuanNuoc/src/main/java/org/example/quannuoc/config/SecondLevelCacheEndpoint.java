@@ -0,0 +1,51 @@
+package org.example.quannuoc.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/hibernatecache: hit/miss/put và tỉ lệ hit của từng region second-level cache,
+// cộng dồn từ lúc khởi động (cần hibernate.generate_statistics=true)
+@Component
+@Endpoint(id = "hibernatecache")
+public class SecondLevelCacheEndpoint {
+
+    public record RegionStats(long hits, long misses, long puts, double hitRatio) {
+
+        static RegionStats of(long hits, long misses, long puts) {
+            long requests = hits + misses;
+            return new RegionStats(hits, misses, puts, requests > 0 ? (double) hits / requests : 0);
+        }
+    }
+
+    public record CacheStats(boolean statisticsEnabled, RegionStats secondLevel, Map<String, RegionStats> regions) {
+    }
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public CacheStats stats() {
+        Map<String, RegionStats> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats != null) {
+                regions.put(region, RegionStats.of(stats.getHitCount(), stats.getMissCount(), stats.getPutCount()));
+            }
+        }
+        return new CacheStats(statistics.isStatisticsEnabled(),
+                RegionStats.of(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                        statistics.getSecondLevelCachePutCount()),
+                regions);
+    }
+}
@@ -5,10 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.CategoryRequest;
 import org.example.quannuoc.dto.response.ApiResponse;
 import org.example.quannuoc.dto.response.CategoryResponse;
+import org.example.quannuoc.service.CatalogVersions;
 import org.example.quannuoc.service.CategoryService;
+import org.example.quannuoc.util.ConditionalGet;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,15 +21,19 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
 
+    // ETag theo phiên bản loại món — If-None-Match khớp thì trả 304 ngay
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAll() {
-        return ResponseEntity.ok(ApiResponse.success(categoryService.getAll()));
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAll(WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.CATEGORIES),
+                () -> ApiResponse.success(categoryService.getAll()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<CategoryResponse>> getById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(ApiResponse.success(categoryService.getById(id)));
+    public ResponseEntity<ApiResponse<CategoryResponse>> getById(@PathVariable("id") Long id, WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.CATEGORIES),
+                () -> ApiResponse.success(categoryService.getById(id)));
     }
 
     @PostMapping
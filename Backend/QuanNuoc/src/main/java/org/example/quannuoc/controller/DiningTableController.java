@@ -5,11 +5,15 @@ import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.DiningTableRequest;
 import org.example.quannuoc.dto.response.ApiResponse;
 import org.example.quannuoc.dto.response.DiningTableResponse;
+import org.example.quannuoc.dto.response.TableBoardResponse;
 import org.example.quannuoc.entity.TableStatus;
+import org.example.quannuoc.service.CatalogVersions;
 import org.example.quannuoc.service.DiningTableService;
+import org.example.quannuoc.util.ConditionalGet;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,18 +23,28 @@ import java.util.List;
 public class DiningTableController {
 
     private final DiningTableService diningTableService;
+    private final CatalogVersions catalogVersions;
 
+    // ETag theo phiên bản danh sách bàn (đổi cả khi mở/đóng order) — If-None-Match khớp thì trả 304 ngay
     @GetMapping
     public ResponseEntity<ApiResponse<List<DiningTableResponse>>> getAll(
             @RequestParam(name = "status", required = false) TableStatus status,
-            @RequestParam(name = "keyword", required = false) String keyword) {
-        return ResponseEntity.ok(
-                ApiResponse.success(diningTableService.getAll(status, keyword)));
+            @RequestParam(name = "keyword", required = false) String keyword,
+            WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.TABLES),
+                () -> ApiResponse.success(diningTableService.getAll(status, keyword)));
+    }
+
+    // Sơ đồ bàn: trạng thái + order đang mở của mọi bàn, phục vụ từ bộ nhớ
+    @GetMapping("/board")
+    public ResponseEntity<ApiResponse<List<TableBoardResponse>>> getBoard() {
+        return ResponseEntity.ok(ApiResponse.success(diningTableService.getBoard()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<DiningTableResponse>> getById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(ApiResponse.success(diningTableService.getById(id)));
+    public ResponseEntity<ApiResponse<DiningTableResponse>> getById(@PathVariable("id") Long id, WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.TABLES),
+                () -> ApiResponse.success(diningTableService.getById(id)));
     }
 
     @PostMapping
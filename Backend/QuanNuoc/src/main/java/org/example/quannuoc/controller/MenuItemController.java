@@ -4,36 +4,49 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.MenuItemRequest;
 import org.example.quannuoc.dto.response.ApiResponse;
+import org.example.quannuoc.dto.response.CatalogStatsResponse;
 import org.example.quannuoc.dto.response.MenuItemResponse;
+import org.example.quannuoc.service.CatalogVersions;
 import org.example.quannuoc.service.MenuItemService;
+import org.example.quannuoc.util.ConditionalGet;
+import org.example.quannuoc.util.SearchUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
-import org.example.quannuoc.util.SearchUtils;
-
 @RestController
 @RequestMapping("/api/menu-items")
 @RequiredArgsConstructor
 public class MenuItemController {
 
     private final MenuItemService menuItemService;
+    private final CatalogVersions catalogVersions;
 
+    // ETag theo phiên bản thực đơn — If-None-Match khớp thì trả 304 ngay
     @GetMapping
     public ResponseEntity<ApiResponse<List<MenuItemResponse>>> getAll(
             @RequestParam(name = "categoryId", required = false) Long categoryId,
             @RequestParam(name = "available", required = false) Boolean available,
-            @RequestParam(name = "keyword", required = false) String keyword) {
-        return ResponseEntity.ok(
-                ApiResponse.success(
+            @RequestParam(name = "keyword", required = false) String keyword,
+            WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.MENU),
+                () -> ApiResponse.success(
                         menuItemService.getAll(categoryId, available, SearchUtils.getNormalizedKeyword(keyword))));
     }
 
+    // Số liệu hit/miss/eviction của MenuCatalog
+    @GetMapping("/catalog-stats")
+    public ResponseEntity<ApiResponse<CatalogStatsResponse>> getCatalogStats() {
+        return ResponseEntity.ok(ApiResponse.success(menuItemService.getCatalogStats()));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<MenuItemResponse>> getById(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(ApiResponse.success(menuItemService.getById(id)));
+    public ResponseEntity<ApiResponse<MenuItemResponse>> getById(@PathVariable("id") Long id, WebRequest request) {
+        return ConditionalGet.respond(request, catalogVersions.current(CatalogVersions.Catalog.MENU),
+                () -> ApiResponse.success(menuItemService.getById(id)));
     }
 
     @PostMapping
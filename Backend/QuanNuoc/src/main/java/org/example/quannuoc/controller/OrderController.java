@@ -1,19 +1,33 @@
 package org.example.quannuoc.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.*;
 import org.example.quannuoc.dto.response.ApiResponse;
+import org.example.quannuoc.dto.response.CursorPageResponse;
+import org.example.quannuoc.dto.response.ItemStatusTransitionResponse;
 import org.example.quannuoc.dto.response.OrderResponse;
 import org.example.quannuoc.dto.response.KitchenItemResponse;
+import org.example.quannuoc.dto.response.TotalDriftResponse;
+import org.example.quannuoc.service.OrderExportService;
 import org.example.quannuoc.service.OrderService;
+import org.example.quannuoc.service.OrderTotalAuditService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,6 +36,8 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderTotalAuditService orderTotalAuditService;
 
     // Lấy tất cả order đang mở
     @GetMapping("/active")
@@ -38,6 +54,37 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(orderService.getHistory(pageable)));
     }
 
+    // Lịch sử order theo cursor (không đếm tổng); truyền nextCursor của trang trước để lấy trang sau
+    @GetMapping("/history/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<OrderResponse>>> getHistoryByCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(orderService.getHistory(cursor, size)));
+    }
+
+    // Xuất order đã thanh toán trong khoảng ngày (CSV / NDJSON), ghi thẳng ra response trong lúc đọc DB
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        orderExportService.checkRange(from, to);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders_" + from + "_" + to + "." + format.getExtension())
+                .build()
+                .toString());
+        orderExportService.export(from, to, format, response.getOutputStream());
+    }
+
+    // Chạy đối soát tổng tiền ngay (ngoài lịch định kỳ), trả về các order bị lệch
+    @GetMapping("/total-drift")
+    public ResponseEntity<ApiResponse<List<TotalDriftResponse>>> getTotalDrift() {
+        return ResponseEntity.ok(ApiResponse.success(orderTotalAuditService.audit()));
+    }
+
     // Lấy order đang mở của một bàn
     @GetMapping("/table/{tableId}")
     public ResponseEntity<ApiResponse<OrderResponse>> getActiveOrderByTableId(
@@ -133,6 +180,20 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(orderService.getPendingKitchenItems(pageable)));
     }
 
+    // Quản lý bếp: kênh Server-Sent Events thay cho polling /kitchen/pending
+    @GetMapping(value = "/kitchen/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamKitchen() {
+        return orderService.streamKitchen();
+    }
+
+    // Quản lý bếp: chuyển trạng thái nhiều món một lần (PENDING → SERVING → SERVED/CANCELLED)
+    @PatchMapping("/kitchen/items/status")
+    public ResponseEntity<ApiResponse<ItemStatusTransitionResponse>> transitionItems(
+            @Valid @RequestBody ItemStatusTransitionRequest request) {
+        return ResponseEntity.ok(
+                ApiResponse.success("Cập nhật trạng thái món thành công", orderService.transitionItems(request)));
+    }
+
     // Đánh dấu món đã phục vụ
     @PatchMapping("/{orderId}/items/{itemId}/serve")
     public ResponseEntity<ApiResponse<OrderResponse>> markItemServed(
@@ -1,7 +1,10 @@
 package org.example.quannuoc.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.request.ChartBucket;
+import org.example.quannuoc.dto.request.SalesWindow;
 import org.example.quannuoc.dto.response.ApiResponse;
+import org.example.quannuoc.dto.response.BestSellerResponse;
 import org.example.quannuoc.dto.response.RevenueChartResponse;
 import org.example.quannuoc.dto.response.StatsResponse;
 import org.example.quannuoc.dto.response.TopItemResponse;
@@ -29,9 +32,18 @@ public class StatsController {
         return ResponseEntity.ok(ApiResponse.success(statsService.getTopItems(days)));
     }
 
+    // Món bán chạy thời gian thực trong 1 giờ / 1 ngày / 1 tuần gần nhất
+    @GetMapping("/best-sellers")
+    public ResponseEntity<ApiResponse<List<BestSellerResponse>>> getBestSellers(
+            @RequestParam(value = "window", defaultValue = "DAY") SalesWindow window,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(statsService.getBestSellers(window, limit)));
+    }
+
     @GetMapping("/revenue-chart")
     public ResponseEntity<ApiResponse<List<RevenueChartResponse>>> getRevenueChart(
-            @RequestParam(value = "days", defaultValue = "7") int days) {
-        return ResponseEntity.ok(ApiResponse.success(statsService.getRevenueChart(days)));
+            @RequestParam(value = "days", defaultValue = "7") int days,
+            @RequestParam(value = "bucket", defaultValue = "DAY") ChartBucket bucket) {
+        return ResponseEntity.ok(ApiResponse.success(statsService.getRevenueChart(days, bucket)));
     }
 }
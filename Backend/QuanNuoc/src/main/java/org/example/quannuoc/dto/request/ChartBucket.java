@@ -0,0 +1,29 @@
+package org.example.quannuoc.dto.request;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+// Độ rộng mỗi cột của biểu đồ doanh thu
+public enum ChartBucket {
+    DAY,
+    WEEK,
+    MONTH;
+
+    // Ngày bắt đầu của bucket chứa date (tuần tính từ thứ 2)
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.quannuoc.dto.request;
+
+// Định dạng file xuất lịch sử order
+public enum ExportFormat {
+    CSV("text/csv", "csv"),       // 1 dòng / món, thông tin order lặp lại trên mỗi dòng
+    NDJSON("application/x-ndjson", "ndjson"); // 1 dòng JSON / order, kèm mảng items
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
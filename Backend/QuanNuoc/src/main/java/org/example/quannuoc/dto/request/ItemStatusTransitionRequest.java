@@ -0,0 +1,20 @@
+package org.example.quannuoc.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.quannuoc.entity.OrderItemStatus;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor
+public class ItemStatusTransitionRequest {
+    @NotEmpty(message = "Danh sách món không được để trống")
+    @Size(max = 200, message = "Tối đa 200 món mỗi lần")
+    private List<Long> orderItemIds;
+    @NotNull(message = "Trạng thái đích không được để trống")
+    private OrderItemStatus status;
+}
@@ -0,0 +1,8 @@
+package org.example.quannuoc.dto.request;
+
+// Cửa sổ trượt cho bảng món bán chạy thời gian thực
+public enum SalesWindow {
+    HOUR,
+    DAY,
+    WEEK
+}
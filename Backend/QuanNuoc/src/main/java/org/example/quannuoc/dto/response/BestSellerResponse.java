@@ -0,0 +1,14 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class BestSellerResponse {
+    private Long menuItemId;
+    private String name;
+    private long quantity;
+    private long revenue;
+    private long maxError; // quantity có thể cao hơn thực tế tối đa chừng này (0 = chính xác)
+}
@@ -0,0 +1,14 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CatalogStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int menuItems;
+    private int categories;
+}
@@ -1,9 +1,11 @@
 package org.example.quannuoc.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
 @Getter
+@AllArgsConstructor
 @Builder
 public class CategoryResponse {
 
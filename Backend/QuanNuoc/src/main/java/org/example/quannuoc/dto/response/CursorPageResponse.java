@@ -0,0 +1,14 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // null khi đã hết dữ liệu
+    private boolean hasMore;
+}
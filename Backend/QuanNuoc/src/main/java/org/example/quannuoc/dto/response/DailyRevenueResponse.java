@@ -0,0 +1,15 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class DailyRevenueResponse {
+    private LocalDate date;
+    private long revenue;
+    private long orders;
+}
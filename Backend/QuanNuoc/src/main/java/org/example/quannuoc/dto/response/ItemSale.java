@@ -0,0 +1,16 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// 1 dòng món đã bán (số lượng, thành tiền, giờ thanh toán) — nguồn cho bảng món bán chạy thời gian thực
+@Getter
+@AllArgsConstructor
+public class ItemSale {
+    private Long menuItemId;
+    private long quantity;
+    private long revenue;
+    private LocalDateTime paidAt;
+}
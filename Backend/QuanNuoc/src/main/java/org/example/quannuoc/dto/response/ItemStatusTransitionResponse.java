@@ -0,0 +1,15 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+// Kết quả chuyển trạng thái hàng loạt: chỉ các món đã đổi (kèm trạng thái mới) và các món bị từ chối
+@Getter
+@Builder
+public class ItemStatusTransitionResponse {
+    private String status;
+    private List<KitchenItemResponse> changed;
+    private List<RejectedItemResponse> rejected;
+}
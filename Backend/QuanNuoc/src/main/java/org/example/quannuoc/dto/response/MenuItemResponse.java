@@ -1,10 +1,12 @@
 package org.example.quannuoc.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
 @Getter
-@Builder
+@AllArgsConstructor
+@Builder(toBuilder = true)
 public class MenuItemResponse {
 
     private Long id;
@@ -0,0 +1,14 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+// Món không chuyển được trạng thái: NOT_FOUND / ORDER_CLOSED / INVALID_TRANSITION
+@Getter
+@Builder
+public class RejectedItemResponse {
+    private Long id;
+    private String currentStatus;
+    private String reason;
+    private String message;
+}
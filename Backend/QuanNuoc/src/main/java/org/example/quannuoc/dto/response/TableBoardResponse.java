@@ -0,0 +1,21 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder(toBuilder = true)
+public class TableBoardResponse {
+
+    private Long tableId;
+    private String tableName;
+    private Integer seats;
+    private String status;
+    // Các trường dưới đây null khi bàn không có order đang mở
+    private Long orderId;
+    private Long totalAmount;
+    private Integer itemCount;
+    private LocalDateTime seatedSince;
+}
@@ -0,0 +1,13 @@
+package org.example.quannuoc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Order có tổng tiền lưu trong DB khác với tổng tính lại từ các dòng món
+@Getter
+@AllArgsConstructor
+public class TotalDriftResponse {
+    private Long orderId;
+    private long storedTotal;
+    private long recomputedTotal;
+}
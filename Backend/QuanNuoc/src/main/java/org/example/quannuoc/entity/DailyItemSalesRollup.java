@@ -0,0 +1,41 @@
+package org.example.quannuoc.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Tổng hợp số lượng / doanh thu / số đơn theo từng món trong ngày (không tính món đã hủy),
+// chia slot như DailySalesRollup để món bán chạy không thành điểm nghẽn
+@Entity
+@Table(name = "daily_item_sales_rollup")
+@IdClass(DailyItemSalesRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyItemSalesRollup {
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    private Long menuItemId;
+
+    @Id
+    @Builder.Default
+    private Integer slot = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long quantity = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long revenue = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+}
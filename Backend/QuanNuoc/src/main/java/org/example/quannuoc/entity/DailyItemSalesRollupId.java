@@ -0,0 +1,18 @@
+package org.example.quannuoc.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class DailyItemSalesRollupId implements Serializable {
+
+    private LocalDate salesDate;
+    private Long menuItemId;
+    private Integer slot;
+}
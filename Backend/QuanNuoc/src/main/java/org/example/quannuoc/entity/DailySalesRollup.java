@@ -0,0 +1,36 @@
+package org.example.quannuoc.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Tổng hợp doanh thu theo ngày — cập nhật cộng dồn khi thanh toán, không quét lại bảng orders.
+// Mỗi ngày chia thành SLOTS dòng để thanh toán đồng thời không xếp hàng chờ khóa 1 dòng; đọc thì cộng lại
+@Entity
+@Table(name = "daily_sales_rollup")
+@IdClass(DailySalesRollupId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySalesRollup {
+
+    public static final int SLOTS = 8;
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    @Builder.Default
+    private Integer slot = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long revenue = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+}
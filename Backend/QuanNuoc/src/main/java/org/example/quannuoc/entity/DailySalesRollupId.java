@@ -0,0 +1,17 @@
+package org.example.quannuoc.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class DailySalesRollupId implements Serializable {
+
+    private LocalDate salesDate;
+    private Integer slot;
+}
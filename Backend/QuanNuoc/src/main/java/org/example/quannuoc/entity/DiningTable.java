@@ -2,9 +2,15 @@ package org.example.quannuoc.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+// Second-level cache READ_WRITE: đổi trạng thái/version khi mở order cập nhật luôn entry trong cache
 @Entity
 @Table(name = "dining_tables")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +32,13 @@ public class DiningTable {
 
     private Integer seats;
 
+    // Chặn 2 thao tác đổi trạng thái cùng bàn (mở order, chuyển/gộp bàn) ghi đè nhau
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     @Column(length = 200)
     private String note;
 }
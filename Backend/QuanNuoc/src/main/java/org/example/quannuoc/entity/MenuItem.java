@@ -2,9 +2,14 @@ package org.example.quannuoc.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Đọc nhiều, ít sửa — nằm trong second-level cache (region = tên class, cấu hình ở SecondLevelCacheConfig)
 @Entity
 @Table(name = "menu_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
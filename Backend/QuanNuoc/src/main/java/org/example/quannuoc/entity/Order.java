@@ -2,6 +2,7 @@ package org.example.quannuoc.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,8 +17,10 @@ import java.util.List;
 @Builder
 public class Order {
 
+    // Sequence + pooled optimizer (allocationSize) để Hibernate có thể batch INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,6 +35,7 @@ public class Order {
     // OrderStatus)
     private LocalDateTime paidAt;
 
+    // Cộng/trừ theo chênh lệch mỗi lần sửa dòng món (OrderService.addToTotal), ghi cùng câu UPDATE tăng version
     @Column(nullable = false)
     @Builder.Default
     private Long totalAmount = 0L;
@@ -40,6 +44,13 @@ public class Order {
 
     private String paymentMethod;
 
+    // Tăng mỗi lần sửa dòng món/tổng tiền — 2 thu ngân sửa cùng order thì người commit sau phải thử lại
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
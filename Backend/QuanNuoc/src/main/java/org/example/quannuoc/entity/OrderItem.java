@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @Builder
 public class OrderItem {
 
+    // Sequence + pooled optimizer (allocationSize) để Hibernate có thể batch INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
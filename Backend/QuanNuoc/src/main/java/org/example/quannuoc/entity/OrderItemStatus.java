@@ -1,8 +1,21 @@
 package org.example.quannuoc.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderItemStatus {
     PENDING, // Vừa gọi, chưa làm — đang chờ trong queue
     SERVING, // Bếp đang làm / đang mang ra cho khách
     SERVED, // Đã mang ra — hoàn thành
-    CANCELLED // Khách hủy món
+    CANCELLED; // Khách hủy món
+
+    // Các trạng thái được phép chuyển sang this: PENDING → SERVING → SERVED/CANCELLED
+    // (PENDING → SERVED trực tiếp như nút "Đã phục vụ" cũ); không quay về PENDING
+    public Set<OrderItemStatus> allowedSources() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(OrderItemStatus.class);
+            case SERVING -> EnumSet.of(PENDING);
+            case SERVED, CANCELLED -> EnumSet.of(PENDING, SERVING);
+        };
+    }
 }
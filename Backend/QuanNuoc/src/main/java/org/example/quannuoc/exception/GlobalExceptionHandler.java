@@ -3,6 +3,7 @@ package org.example.quannuoc.exception;
 import org.example.quannuoc.dto.response.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -46,6 +47,17 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(400, ex.getMessage()));
     }
 
+    // Xung đột trạng thái (bàn đã có order, order đã thanh toán...) hoặc ghi đồng thời đã hết lượt thử lại
+    @ExceptionHandler({IllegalStateException.class, ConcurrencyFailureException.class})
+    public ResponseEntity<ApiResponse<Void>> handleConflict(RuntimeException ex) {
+        String message = ex instanceof ConcurrencyFailureException
+                ? "Dữ liệu vừa được người khác cập nhật, vui lòng thử lại"
+                : ex.getMessage();
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(409, message));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGeneral(Exception ex) {
         log.error("Lỗi hệ thống: ", ex);
@@ -2,17 +2,19 @@ package org.example.quannuoc.mapper;
 
 import org.example.quannuoc.dto.response.OrderItemResponse;
 import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.service.MenuCatalog;
 
 public class OrderItemMapper {
 
     private OrderItemMapper() {
     }
 
-    public static OrderItemResponse toResponse(OrderItem item) {
+    // Tên món lấy từ MenuCatalog để không phải lazy load MenuItem cho từng dòng
+    public static OrderItemResponse toResponse(OrderItem item, MenuCatalog menuCatalog) {
         return OrderItemResponse.builder()
                 .id(item.getId())
                 .menuItemId(item.getMenuItem().getId())
-                .menuItemName(item.getMenuItem().getName())
+                .menuItemName(menuCatalog.getMenuItemName(item.getMenuItem()))
                 .quantity(item.getQuantity())
                 .note(item.getNote())
                 .price(item.getPriceAtOrder())
@@ -2,6 +2,7 @@ package org.example.quannuoc.mapper;
 
 import org.example.quannuoc.dto.response.OrderResponse;
 import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.service.MenuCatalog;
 
 import java.util.List;
 
@@ -10,10 +11,10 @@ public class OrderMapper {
     private OrderMapper() {
     }
 
-    public static OrderResponse toResponse(Order order) {
+    public static OrderResponse toResponse(Order order, MenuCatalog menuCatalog) {
         List<org.example.quannuoc.dto.response.OrderItemResponse> itemResponses = order.getItems()
                 .stream()
-                .map(OrderItemMapper::toResponse)
+                .map(item -> OrderItemMapper.toResponse(item, menuCatalog))
                 .toList();
 
         return OrderResponse.builder()
@@ -1,9 +1,13 @@
 package org.example.quannuoc.repository;
 
+import org.example.quannuoc.dto.response.CategoryResponse;
 import org.example.quannuoc.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
@@ -11,5 +15,11 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByNameAndIdNot(String name, Long id);
 
-    List<Category> findAllByOrderByDisplayOrderAsc();
+    @Query("SELECT new org.example.quannuoc.dto.response.CategoryResponse(c.id, c.name, c.displayOrder) " +
+           "FROM Category c ORDER BY c.displayOrder, c.id")
+    List<CategoryResponse> findAllResponses();
+
+    @Query("SELECT new org.example.quannuoc.dto.response.CategoryResponse(c.id, c.name, c.displayOrder) " +
+           "FROM Category c WHERE c.id = :id")
+    Optional<CategoryResponse> findResponseById(@Param("id") Long id);
 }
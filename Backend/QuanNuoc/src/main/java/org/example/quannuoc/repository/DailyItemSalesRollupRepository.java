@@ -0,0 +1,56 @@
+package org.example.quannuoc.repository;
+
+import jakarta.persistence.QueryHint;
+import org.example.quannuoc.dto.response.TopItemResponse;
+import org.example.quannuoc.entity.DailyItemSalesRollup;
+import org.example.quannuoc.entity.DailyItemSalesRollupId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// INSERT native chỉ làm mất hiệu lực cache của daily_item_sales_rollup (HINT_NATIVE_SPACES)
+@Repository
+public interface DailyItemSalesRollupRepository extends JpaRepository<DailyItemSalesRollup, DailyItemSalesRollupId> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_item_sales_rollup"))
+    @Query(value = "INSERT INTO daily_item_sales_rollup (sales_date, menu_item_id, slot, quantity, revenue, order_count) " +
+                   "VALUES (:date, :menuItemId, :slot, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("date") LocalDate date, @Param("menuItemId") Long menuItemId, @Param("slot") int slot);
+
+    @Modifying
+    @Query("UPDATE DailyItemSalesRollup r SET r.quantity = r.quantity + :quantity, r.revenue = r.revenue + :revenue, " +
+           "r.orderCount = r.orderCount + 1 " +
+           "WHERE r.salesDate = :date AND r.menuItemId = :menuItemId AND r.slot = :slot")
+    int addSales(@Param("date") LocalDate date, @Param("menuItemId") Long menuItemId, @Param("slot") int slot,
+                 @Param("quantity") long quantity, @Param("revenue") long revenue);
+
+    // Top món bán chạy — gom theo id món nên 2 món trùng tên không bị cộng chung
+    @Query("SELECT new org.example.quannuoc.dto.response.TopItemResponse(m.name, SUM(r.quantity), SUM(r.revenue)) " +
+           "FROM DailyItemSalesRollup r JOIN MenuItem m ON m.id = r.menuItemId " +
+           "WHERE r.salesDate BETWEEN :from AND :to " +
+           "GROUP BY m.id, m.name " +
+           "ORDER BY SUM(r.quantity) DESC")
+    List<TopItemResponse> findTopSellingItems(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DailyItemSalesRollup r WHERE r.salesDate >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_item_sales_rollup"))
+    @Query(value = "INSERT INTO daily_item_sales_rollup (sales_date, menu_item_id, slot, quantity, revenue, order_count) " +
+                   "SELECT CAST(o.paid_at AS DATE), oi.menu_item_id, 0, SUM(oi.quantity), " +
+                   "SUM(oi.quantity * oi.price_at_order), COUNT(DISTINCT o.id) " +
+                   "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                   "WHERE o.paid_at IS NOT NULL AND oi.status <> 'CANCELLED' " +
+                   "GROUP BY CAST(o.paid_at AS DATE), oi.menu_item_id", nativeQuery = true)
+    int rebuildFromOrders();
+}
@@ -0,0 +1,57 @@
+package org.example.quannuoc.repository;
+
+import jakarta.persistence.QueryHint;
+import org.example.quannuoc.dto.response.DailyRevenueResponse;
+import org.example.quannuoc.entity.DailySalesRollup;
+import org.example.quannuoc.entity.DailySalesRollupId;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Câu native khai báo bảng bị ghi (HINT_NATIVE_SPACES) — không có thì Hibernate xóa sạch second-level cache
+// mỗi lần thanh toán
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId> {
+
+    // Tạo dòng rỗng cho (ngày, slot) nếu chưa có (an toàn khi nhiều giao dịch thanh toán cùng lúc)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales_rollup"))
+    @Query(value = "INSERT INTO daily_sales_rollup (sales_date, slot, revenue, order_count) " +
+                   "VALUES (:date, :slot, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("date") LocalDate date, @Param("slot") int slot);
+
+    // Cộng dồn nguyên tử — dòng bị khóa đến hết transaction nên không mất cập nhật
+    @Modifying
+    @Query("UPDATE DailySalesRollup r SET r.revenue = r.revenue + :revenue, r.orderCount = r.orderCount + :orders " +
+           "WHERE r.salesDate = :date AND r.slot = :slot")
+    int addSales(@Param("date") LocalDate date, @Param("slot") int slot,
+                 @Param("revenue") long revenue, @Param("orders") long orders);
+
+    // Cộng các slot của từng ngày
+    @Query("SELECT new org.example.quannuoc.dto.response.DailyRevenueResponse(r.salesDate, SUM(r.revenue), SUM(r.orderCount)) " +
+           "FROM DailySalesRollup r " +
+           "WHERE r.salesDate BETWEEN :from AND :to " +
+           "GROUP BY r.salesDate " +
+           "ORDER BY r.salesDate")
+    List<DailyRevenueResponse> findRevenueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.salesDate >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    // Dựng lại toàn bộ từ lịch sử order đã thanh toán, dồn vào slot 0
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_sales_rollup"))
+    @Query(value = "INSERT INTO daily_sales_rollup (sales_date, slot, revenue, order_count) " +
+                   "SELECT CAST(o.paid_at AS DATE), 0, SUM(o.total_amount), COUNT(*) " +
+                   "FROM orders o WHERE o.paid_at IS NOT NULL " +
+                   "GROUP BY CAST(o.paid_at AS DATE)", nativeQuery = true)
+    int rebuildFromOrders();
+}
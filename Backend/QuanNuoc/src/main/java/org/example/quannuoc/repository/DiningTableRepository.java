@@ -1,23 +1,39 @@
 package org.example.quannuoc.repository;
 
+import jakarta.persistence.LockModeType;
+import org.example.quannuoc.dto.response.DiningTableResponse;
 import org.example.quannuoc.entity.DiningTable;
 import org.example.quannuoc.entity.TableStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DiningTableRepository extends JpaRepository<DiningTable, Long> {
 
-    List<DiningTable> findByStatus(TableStatus status);
+    // Danh sách bàn chọn thẳng các cột của DiningTableResponse (không nạp entity vào persistence context).
+    // Lượt GET lặp lại đã được ETag/304 chặn trước
+    @Query("SELECT new org.example.quannuoc.dto.response.DiningTableResponse(t.id, t.name, CAST(t.status AS String), t.seats, t.note) " +
+           "FROM DiningTable t ORDER BY t.id")
+    List<DiningTableResponse> findAllResponses();
 
-    boolean existsByNameIgnoreCase(String name);
+    @Query("SELECT new org.example.quannuoc.dto.response.DiningTableResponse(t.id, t.name, CAST(t.status AS String), t.seats, t.note) " +
+           "FROM DiningTable t WHERE t.status = :status ORDER BY t.id")
+    List<DiningTableResponse> findResponsesByStatus(@Param("status") TableStatus status);
+
+    @Query("SELECT new org.example.quannuoc.dto.response.DiningTableResponse(t.id, t.name, CAST(t.status AS String), t.seats, t.note) " +
+           "FROM DiningTable t WHERE t.id IN :ids")
+    List<DiningTableResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT t FROM DiningTable t " +
-            "WHERE (:status IS NULL OR t.status = :status) " +
-            "AND (:keyword IS NULL OR LOWER(t.name) LIKE CONCAT('%', LOWER(:keyword), '%'))")
-    List<DiningTable> findByFilters(
-            @Param("status") TableStatus status,
-            @Param("keyword") String keyword);
+    // Tăng version của bàn khi commit dù không đổi cột nào — 2 người cùng mở order cho 1 bàn
+    // thì người commit sau nhận OptimisticLockException
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT t FROM DiningTable t WHERE t.id = :id")
+    Optional<DiningTable> findForUpdateById(@Param("id") Long id);
+
+    boolean existsByNameIgnoreCase(String name);
 }
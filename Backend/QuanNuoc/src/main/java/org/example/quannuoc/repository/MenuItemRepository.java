@@ -1,11 +1,13 @@
 package org.example.quannuoc.repository;
 
+import org.example.quannuoc.dto.response.MenuItemResponse;
 import org.example.quannuoc.entity.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
 
@@ -15,12 +17,12 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
 
     boolean existsByCategoryId(Long categoryId);
 
-    @Query("SELECT m FROM MenuItem m " +
-            "WHERE (:categoryId IS NULL OR m.category.id = :categoryId) " +
-            "AND (:available IS NULL OR m.available = :available) " +
-            "AND (:keyword IS NULL OR LOWER(m.name) LIKE CONCAT('%', LOWER(:keyword), '%'))")
-    List<MenuItem> findByFilters(
-            @Param("categoryId") Long categoryId,
-            @Param("available") Boolean available,
-            @Param("keyword") String keyword);
+    // Projection cho MenuCatalog: đúng các trường của MenuItemResponse, tên loại lấy bằng LEFT JOIN trong cùng câu
+    @Query("SELECT new org.example.quannuoc.dto.response.MenuItemResponse(m.id, m.name, m.price, c.id, c.name, " +
+           "m.description, m.available) FROM MenuItem m LEFT JOIN m.category c ORDER BY m.id")
+    List<MenuItemResponse> findAllResponses();
+
+    @Query("SELECT new org.example.quannuoc.dto.response.MenuItemResponse(m.id, m.name, m.price, c.id, c.name, " +
+           "m.description, m.available) FROM MenuItem m LEFT JOIN m.category c WHERE m.id = :id")
+    Optional<MenuItemResponse> findResponseById(@Param("id") Long id);
 }
@@ -0,0 +1,66 @@
+package org.example.quannuoc.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Đọc order đã thanh toán + các món bằng JDBC cursor chỉ-tiến, không qua persistence context,
+// để xuất dữ liệu cả năm mà bộ nhớ không tăng theo số dòng
+@Repository
+@RequiredArgsConstructor
+public class OrderExportRepository {
+
+    public static final int FETCH_SIZE = 500;
+
+    private static final String SQL = """
+            SELECT o.id, t.name AS table_name, o.created_at, o.paid_at, o.payment_method, o.total_amount, o.note,
+                   oi.id AS item_id, m.name AS menu_item_name, oi.quantity, oi.price_at_order, oi.status,
+                   oi.note AS item_note
+            FROM orders o
+            JOIN dining_tables t ON t.id = o.dining_table_id
+            JOIN order_items oi ON oi.order_id = o.id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE o.paid_at >= ? AND o.paid_at < ?
+            ORDER BY o.paid_at, o.id, oi.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Line(Long orderId, String tableName, LocalDateTime createdAt, LocalDateTime paidAt,
+                       String paymentMethod, long totalAmount, String orderNote,
+                       Long itemId, String menuItemName, int quantity, long priceAtOrder,
+                       String status, String itemNote) {
+    }
+
+    // Gọi trong transaction: PostgreSQL chỉ dùng cursor (fetch theo lô FETCH_SIZE) khi autocommit tắt
+    public void streamPaidLines(LocalDateTime from, LocalDateTime to, Consumer<Line> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            return ps;
+        }, rs -> {
+            consumer.accept(new Line(
+                    rs.getLong("id"),
+                    rs.getString("table_name"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("paid_at").toLocalDateTime(),
+                    rs.getString("payment_method"),
+                    rs.getLong("total_amount"),
+                    rs.getString("note"),
+                    rs.getLong("item_id"),
+                    rs.getString("menu_item_name"),
+                    rs.getInt("quantity"),
+                    rs.getLong("price_at_order"),
+                    rs.getString("status"),
+                    rs.getString("item_note")));
+        });
+    }
+}
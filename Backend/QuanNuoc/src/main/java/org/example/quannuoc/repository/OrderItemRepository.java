@@ -1,14 +1,18 @@
 package org.example.quannuoc.repository;
 
+import org.example.quannuoc.dto.response.ItemSale;
 import org.example.quannuoc.entity.OrderItem;
 import org.example.quannuoc.entity.OrderItemStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,9 +22,35 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     boolean existsByMenuItemId(Long menuItemId);
 
-    @Query("SELECT oi FROM OrderItem oi WHERE oi.status = :status AND oi.order.paidAt IS NULL ORDER BY oi.orderedAt ASC")
-    List<OrderItem> findPendingItems(@Param("status") OrderItemStatus status);
+    // Fetch join order + bàn để dựng KitchenItemResponse không bị N+1
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o JOIN FETCH o.diningTable " +
+           "WHERE oi.status IN :statuses AND o.paidAt IS NULL ORDER BY oi.orderedAt ASC")
+    List<OrderItem> findKitchenItems(@Param("statuses") Collection<OrderItemStatus> statuses);
 
-    @Query("SELECT oi FROM OrderItem oi WHERE oi.status = :status AND oi.order.paidAt IS NULL ORDER BY oi.orderedAt ASC")
+    // Đếm món đang chờ của các order chưa thanh toán (gauge giám sát)
+    long countByStatusAndOrderPaidAtIsNull(OrderItemStatus status);
+
+    // Các dòng đã bán từ mốc thời gian (dựng lại BestSellerTracker lúc khởi động)
+    @Query("SELECT new org.example.quannuoc.dto.response.ItemSale(oi.menuItem.id, CAST(oi.quantity AS long), " +
+           "oi.quantity * oi.priceAtOrder, o.paidAt) " +
+           "FROM OrderItem oi JOIN oi.order o WHERE o.paidAt >= :since AND oi.status <> :excluded")
+    List<ItemSale> findSalesSince(@Param("since") LocalDateTime since,
+                                   @Param("excluded") OrderItemStatus excluded);
+
+    @Query(value = "SELECT oi FROM OrderItem oi JOIN FETCH oi.order o JOIN FETCH o.diningTable " +
+                   "WHERE oi.status = :status AND o.paidAt IS NULL ORDER BY oi.orderedAt ASC",
+           countQuery = "SELECT COUNT(oi) FROM OrderItem oi WHERE oi.status = :status AND oi.order.paidAt IS NULL")
     Page<OrderItem> findPendingItemsPage(@Param("status") OrderItemStatus status, Pageable pageable);
+
+    // Chỉ các dòng được chọn + order + bàn (không nạp các dòng khác của order)
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o JOIN FETCH o.diningTable WHERE oi.id IN :ids")
+    List<OrderItem> findWithOrderByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Chuyển trạng thái nhiều dòng bằng 1 câu UPDATE; điều kiện status IN :from chặn luôn
+    // trường hợp dòng vừa bị người khác đổi sau khi đọc
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.status = :target WHERE oi.id IN :ids AND oi.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") Collection<OrderItemStatus> from,
+                     @Param("target") OrderItemStatus target);
 }
@@ -0,0 +1,111 @@
+package org.example.quannuoc.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.util.OrderPartitions;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+// DDL partition của bảng orders (PostgreSQL). Gọi trong transaction: mỗi thao tác gồm nhiều câu lệnh
+// phải cùng thành công hoặc cùng hủy. Tên bảng chỉ sinh từ OrderPartitions, không nhận chuỗi từ ngoài.
+@Repository
+@RequiredArgsConstructor
+public class OrderPartitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // false trên H2 (test/bench dùng schema do Hibernate tạo, không partition)
+    public boolean isPartitioned() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.oid = to_regclass('orders'))", Boolean.class));
+    }
+
+    // Khóa theo transaction: nhiều instance cùng chạy lịch bảo trì thì chỉ 1 instance làm
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('orders_partition_maintenance'))", Boolean.class));
+    }
+
+    public List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('orders') ORDER BY c.relname", String.class);
+    }
+
+    public List<YearMonth> monthlyPartitions() {
+        return partitions().stream()
+                .map(OrderPartitions::monthOf)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    // Tạo bảng rời, chuyển các order đã thanh toán lỡ rơi vào orders_open (tháng chưa có partition) sang,
+    // rồi ATTACH — orders_open không còn dòng thuộc khoảng này nên ATTACH không bị từ chối
+    public int createMonthly(YearMonth month) {
+        String table = OrderPartitions.monthly(month);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE orders INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (id)");
+        int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + OrderPartitions.OPEN + " WHERE paid_at >= ? AND paid_at < ? RETURNING *) " +
+                "INSERT INTO " + table + " SELECT * FROM moved",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE orders ATTACH PARTITION " + table +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        return moved;
+    }
+
+    // V3 bỏ FK order_items → orders: đếm dòng món mà order không còn trong orders (kể cả orders_archive)
+    public long countOrphanItems() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_items oi WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.id = oi.order_id)",
+                Long.class);
+    }
+
+    // Tách partition tháng sang schema archive kèm các dòng món của nó; trả về số dòng món đã chuyển
+    public int detachToArchive(YearMonth month) {
+        String table = OrderPartitions.monthly(month);
+        String archived = OrderPartitions.ARCHIVE_SCHEMA + "." + table;
+        String items = OrderPartitions.ARCHIVE_SCHEMA + "." + OrderPartitions.archivedItems(month);
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + table);
+        jdbcTemplate.execute("ALTER TABLE " + table + " SET SCHEMA " + OrderPartitions.ARCHIVE_SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE " + items + " (LIKE order_items INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        return jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM order_items oi USING " + archived + " o WHERE oi.order_id = o.id " +
+                "RETURNING oi.*) INSERT INTO " + items + " SELECT * FROM moved");
+    }
+
+    // Gộp các tháng vào orders_archive rồi gắn lại với khoảng [MINVALUE, before) — mọi tháng trước before
+    // phải đã được gộp hoặc nằm trong months.
+    // CHECK trùng khoảng partition để ATTACH khỏi quét lại toàn bộ dữ liệu cũ
+    public void compactIntoArchive(List<YearMonth> months, YearMonth before) {
+        String archive = OrderPartitions.ARCHIVE;
+        if (partitions().contains(archive)) {
+            jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + archive);
+        } else {
+            jdbcTemplate.execute("CREATE TABLE " + archive + " (LIKE orders INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            jdbcTemplate.execute("ALTER TABLE " + archive + " ADD PRIMARY KEY (id)");
+        }
+        for (YearMonth month : months) {
+            String table = OrderPartitions.monthly(month);
+            jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + table);
+            jdbcTemplate.execute("INSERT INTO " + archive + " SELECT * FROM " + table);
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + OrderPartitions.OPEN + " WHERE paid_at < ? RETURNING *) " +
+                "INSERT INTO " + archive + " SELECT * FROM moved", before.atDay(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + archive + " DROP CONSTRAINT IF EXISTS " + archive + "_range");
+        jdbcTemplate.execute("ALTER TABLE " + archive + " ADD CONSTRAINT " + archive + "_range " +
+                "CHECK (paid_at IS NOT NULL AND paid_at < '" + before.atDay(1) + "')");
+        jdbcTemplate.execute("ALTER TABLE orders ATTACH PARTITION " + archive +
+                " FOR VALUES FROM (MINVALUE) TO ('" + before.atDay(1) + "')");
+    }
+}
@@ -1,15 +1,20 @@
 package org.example.quannuoc.repository;
 
-import org.example.quannuoc.dto.response.TopItemResponse;
+import org.example.quannuoc.dto.response.TotalDriftResponse;
 import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +23,36 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByPaidAtIsNull();
 
+    // Order đang mở kèm bàn + các dòng món trong 1 câu truy vấn (tránh N+1 khi map sang response)
+    @EntityGraph(attributePaths = {"diningTable", "items"})
+    @Query("SELECT o FROM Order o WHERE o.paidAt IS NULL")
+    List<Order> findWithItemsByPaidAtIsNull();
+
     // Tìm order đang mở (chưa thanh toán) của 1 bàn
     Optional<Order> findByDiningTableIdAndPaidAtIsNull(Long tableId);
 
+    // Như trên, kèm bàn + các dòng món để dựng response ngoài transaction (open-in-view tắt)
+    @EntityGraph(attributePaths = {"diningTable", "items"})
+    @Query("SELECT o FROM Order o WHERE o.diningTable.id = :tableId AND o.paidAt IS NULL")
+    Optional<Order> findOpenWithItemsByTableId(@Param("tableId") Long tableId);
+
+    // Tăng version khi dòng món bị sửa bằng UPDATE hàng loạt → giao dịch đang giữ bản cũ của order
+    // sẽ nhận OptimisticLockException thay vì ghi đè trạng thái món. Có điều kiện version: trả về 0 nếu
+    // order vừa bị sửa, nhờ vậy version sau commit luôn đúng bằng version + 1 (sơ đồ bàn dùng làm mốc)
+    @Modifying
+    @Query("UPDATE Order o SET o.version = o.version + 1 WHERE o.id = :id AND o.version = :version")
+    int incrementVersion(@Param("id") Long id, @Param("version") Long version);
+
+    // Order có total_amount lệch với tổng tính lại từ các dòng món (không tính món hủy)
+    @Query("SELECT new org.example.quannuoc.dto.response.TotalDriftResponse(o.id, o.totalAmount, " +
+           "COALESCE(SUM(CASE WHEN oi.status <> :cancelled THEN oi.quantity * oi.priceAtOrder ELSE 0 END), 0)) " +
+           "FROM Order o LEFT JOIN o.items oi " +
+           "WHERE o.paidAt IS NULL OR o.paidAt >= :paidSince " +
+           "GROUP BY o.id, o.totalAmount " +
+           "HAVING o.totalAmount <> COALESCE(SUM(CASE WHEN oi.status <> :cancelled THEN oi.quantity * oi.priceAtOrder ELSE 0 END), 0)")
+    List<TotalDriftResponse> findTotalDrift(@Param("paidSince") LocalDateTime paidSince,
+                                            @Param("cancelled") OrderItemStatus cancelled);
+
     boolean existsByDiningTableId(Long tableId);
 
     // Toàn bộ lịch sử order của 1 bàn
@@ -30,19 +62,29 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Phân trang lịch sử order đã thanh toán
     Page<Order> findByPaidAtIsNotNullOrderByPaidAtDesc(Pageable pageable);
 
-    // Thống kê doanh thu theo khoảng thời gian
-    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.paidAt BETWEEN :start AND :end")
-    Long sumRevenueBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    // Đếm số đơn hàng theo khoảng thời gian
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.paidAt BETWEEN :start AND :end")
-    Long countOrdersBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    // Top món bán chạy
-    @Query("SELECT new org.example.quannuoc.dto.response.TopItemResponse(oi.menuItem.name, SUM(oi.quantity), SUM(oi.quantity * oi.priceAtOrder)) " +
-           "FROM OrderItem oi " +
-           "WHERE oi.order.paidAt BETWEEN :start AND :end " +
-           "GROUP BY oi.menuItem.name " +
-           "ORDER BY SUM(oi.quantity) DESC")
-    List<TopItemResponse> findTopSellingItems(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    // Phân trang theo id trước (không fetch join collection khi LIMIT/OFFSET),
+    // sau đó nạp đầy đủ các order của trang bằng findWithItemsByIdIn
+    @Query(value = "SELECT o.id FROM Order o WHERE o.paidAt IS NOT NULL ORDER BY o.paidAt DESC, o.id DESC",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.paidAt IS NOT NULL")
+    Page<Long> findIdsByPaidAtIsNotNullOrderByPaidAtDesc(Pageable pageable);
+
+    // Keyset theo (paidAt, id) giảm dần: mọi trang đều là 1 lần seek trên ix_orders_paid_at_id, không OFFSET/COUNT
+    @Query("SELECT o.id FROM Order o WHERE o.paidAt IS NOT NULL ORDER BY o.paidAt DESC, o.id DESC")
+    List<Long> findHistoryIds(Limit limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.paidAt IS NOT NULL AND (o.paidAt, o.id) < (:paidAt, :id) " +
+           "ORDER BY o.paidAt DESC, o.id DESC")
+    List<Long> findHistoryIdsAfter(@Param("paidAt") LocalDateTime paidAt, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(attributePaths = {"diningTable", "items"})
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"diningTable", "items"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    // Thời điểm thanh toán sớm nhất còn trong orders (tháng cũ có thể đã tách sang schema archive)
+    @Query("SELECT MIN(o.paidAt) FROM Order o")
+    LocalDateTime findOldestPaidAt();
 }
@@ -0,0 +1,129 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.dto.request.SalesWindow;
+import org.example.quannuoc.dto.response.ItemSale;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.repository.OrderItemRepository;
+import org.example.quannuoc.util.SpaceSavingSketch;
+import org.example.quannuoc.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Món bán chạy theo cửa sổ trượt 1 giờ / 1 ngày / 1 tuần, giữ trong bộ nhớ.
+// Mỗi phút (cho HOUR) và mỗi giờ (cho DAY, WEEK) là 1 bucket Space-Saving theo id món; bucket quá cửa sổ bị
+// ghi đè khi vòng lại. Nạp từ payOrder sau commit; dựng lại từ DB (7 ngày gần nhất) lúc khởi động.
+@Component
+public class BestSellerTracker {
+
+    private static final int MINUTE_BUCKETS = 60;
+    private static final int HOUR_BUCKETS = 24 * 7;
+
+    private final OrderItemRepository orderItemRepository;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Bucket[] minuteBuckets = new Bucket[MINUTE_BUCKETS];
+    private Bucket[] hourBuckets = new Bucket[HOUR_BUCKETS];
+
+    private record Bucket(long epoch, SpaceSavingSketch sketch) {
+    }
+
+    public BestSellerTracker(OrderItemRepository orderItemRepository,
+                             @Value("${app.best-sellers.capacity:64}") int capacity) {
+        this.orderItemRepository = orderItemRepository;
+        this.capacity = capacity;
+    }
+
+    // Tính các dòng bán trong transaction thanh toán, cộng vào sketch sau commit (món hủy không tính)
+    public void recordPayment(Order order) {
+        List<ItemSale> sales = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getStatus() != OrderItemStatus.CANCELLED) {
+                sales.add(new ItemSale(item.getMenuItem().getId(), item.getQuantity(),
+                        item.getPriceAtOrder() * item.getQuantity(), order.getPaidAt()));
+            }
+        }
+        TransactionUtils.afterCommit(() -> {
+            lock.lock();
+            try {
+                sales.forEach(this::add);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public List<SpaceSavingSketch.Entry> top(SalesWindow window, int n) {
+        long minute = epochMinute(LocalDateTime.now());
+        lock.lock();
+        try {
+            List<SpaceSavingSketch> live = switch (window) {
+                case HOUR -> live(minuteBuckets, minute, MINUTE_BUCKETS);
+                case DAY -> live(hourBuckets, minute / 60, 24);
+                case WEEK -> live(hourBuckets, minute / 60, HOUR_BUCKETS);
+            };
+            return SpaceSavingSketch.top(live, n);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        List<ItemSale> sales = orderItemRepository.findSalesSince(since, OrderItemStatus.CANCELLED);
+        lock.lock();
+        try {
+            minuteBuckets = new Bucket[MINUTE_BUCKETS];
+            hourBuckets = new Bucket[HOUR_BUCKETS];
+            sales.forEach(this::add);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(ItemSale sale) {
+        long minute = epochMinute(sale.getPaidAt());
+        bucket(minuteBuckets, minute).add(sale.getMenuItemId(), sale.getQuantity(), sale.getRevenue());
+        bucket(hourBuckets, minute / 60).add(sale.getMenuItemId(), sale.getQuantity(), sale.getRevenue());
+    }
+
+    // Bucket của epoch; slot đang giữ epoch cũ (đã ra khỏi cửa sổ) thì thay bằng bucket rỗng
+    private SpaceSavingSketch bucket(Bucket[] ring, long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) ring.length);
+        Bucket current = ring[slot];
+        if (current == null || current.epoch() != epoch) {
+            if (current != null && current.epoch() > epoch) {
+                // Dòng bán cũ hơn cả vòng (chỉ gặp khi dựng lại) — bucket mới hơn giữ nguyên
+                return new SpaceSavingSketch(capacity);
+            }
+            current = new Bucket(epoch, new SpaceSavingSketch(capacity));
+            ring[slot] = current;
+        }
+        return current.sketch();
+    }
+
+    private static List<SpaceSavingSketch> live(Bucket[] ring, long nowEpoch, int span) {
+        List<SpaceSavingSketch> live = new ArrayList<>();
+        for (Bucket b : ring) {
+            if (b != null && b.epoch() > nowEpoch - span && b.epoch() <= nowEpoch) {
+                live.add(b.sketch());
+            }
+        }
+        return live;
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.util.TransactionUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Số phiên bản của từng danh mục (thực đơn, loại món, bàn), tăng sau mỗi lần ghi đã commit.
+// Controller dùng làm ETag/Last-Modified để trả 304 mà không chạm DB. bootId đổi mỗi lần khởi động
+// nên ETag cũ từ trước khi restart không bao giờ khớp nhầm.
+@Component
+public class CatalogVersions {
+
+    public enum Catalog {
+        MENU, CATEGORIES, TABLES
+    }
+
+    public record Stamp(long version, String etag, Instant lastModified) {
+    }
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Catalog, AtomicReference<Stamp>> stamps = new EnumMap<>(Catalog.class);
+
+    public CatalogVersions() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (Catalog catalog : Catalog.values()) {
+            stamps.put(catalog, new AtomicReference<>(stamp(catalog, 0, now)));
+        }
+    }
+
+    public Stamp current(Catalog catalog) {
+        return stamps.get(catalog).get();
+    }
+
+    // Gọi trong transaction ghi; phiên bản chỉ tăng khi commit thành công.
+    // Last-Modified chỉ chính xác tới giây: luôn tiến ít nhất 1s so với lần trước, nếu không GET và ghi
+    // trong cùng 1 giây cho cùng Last-Modified → If-Modified-Since trả 304 với dữ liệu cũ.
+    // Ghi dồn dập có thể đẩy mốc lên trước đồng hồ vài giây; hết dồn thì đồng hồ đuổi kịp.
+    public void bump(Catalog... catalogs) {
+        TransactionUtils.afterCommit(() -> {
+            Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+            for (Catalog catalog : catalogs) {
+                stamps.get(catalog).updateAndGet(s -> stamp(catalog, s.version() + 1,
+                        later(now, s.lastModified().plusSeconds(1))));
+            }
+        });
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private Stamp stamp(Catalog catalog, long version, Instant lastModified) {
+        String etag = "\"" + catalog.name().toLowerCase() + "-" + bootId + "-" + version + "\"";
+        return new Stamp(version, etag, lastModified);
+    }
+}
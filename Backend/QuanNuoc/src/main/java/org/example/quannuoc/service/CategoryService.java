@@ -19,24 +19,24 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final MenuItemRepository menuItemRepository;
+    private final MenuCatalog menuCatalog;
+    private final CatalogVersions catalogVersions;
 
+    // Đọc từ MenuCatalog trong bộ nhớ — không truy vấn DB
     public List<CategoryResponse> getAll() {
-        return categoryRepository.findAllByOrderByDisplayOrderAsc()
-                .stream()
-                .map(CategoryMapper::toResponse)
-                .toList();
+        return menuCatalog.getCategories();
     }
 
     public CategoryResponse getById(Long id) {
-        Category category = findByIdOrThrow(id);
-        return CategoryMapper.toResponse(category);
+        return menuCatalog.findCategory(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", id));
     }
 
     @Transactional
     public CategoryResponse create(CategoryRequest request) {
         validateUniqueName(request.getName().trim(), null);
         Category category = CategoryMapper.toEntity(request);
-        return CategoryMapper.toResponse(categoryRepository.save(category));
+        return cache(CategoryMapper.toResponse(categoryRepository.save(category)));
     }
 
     @Transactional
@@ -45,7 +45,7 @@ public class CategoryService {
         validateUniqueName(request.getName().trim(), id);
         category.setName(request.getName().trim());
         category.setDisplayOrder(request.getDisplayOrder() != null ? request.getDisplayOrder() : 0);
-        return CategoryMapper.toResponse(categoryRepository.save(category));
+        return cache(CategoryMapper.toResponse(categoryRepository.save(category)));
     }
 
     @Transactional
@@ -55,6 +55,15 @@ public class CategoryService {
             throw new IllegalArgumentException("Không thể xoá danh mục này vì đang có món ăn thuộc danh mục này");
         }
         categoryRepository.delete(category);
+        menuCatalog.removeCategory(id);
+        catalogVersions.bump(CatalogVersions.Catalog.CATEGORIES);
+    }
+
+    // Cập nhật MenuCatalog sau khi transaction commit; món mang theo categoryName nên thực đơn cũng đổi phiên bản
+    private CategoryResponse cache(CategoryResponse response) {
+        menuCatalog.putCategory(response);
+        catalogVersions.bump(CatalogVersions.Catalog.CATEGORIES, CatalogVersions.Catalog.MENU);
+        return response;
     }
 
     private Category findByIdOrThrow(Long id) {
@@ -3,16 +3,21 @@ package org.example.quannuoc.service;
 import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.DiningTableRequest;
 import org.example.quannuoc.dto.response.DiningTableResponse;
+import org.example.quannuoc.dto.response.TableBoardResponse;
 import org.example.quannuoc.entity.DiningTable;
 import org.example.quannuoc.entity.TableStatus;
 import org.example.quannuoc.exception.ResourceNotFoundException;
 import org.example.quannuoc.mapper.DiningTableMapper;
 import org.example.quannuoc.repository.DiningTableRepository;
 import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.util.SearchUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,15 +25,34 @@ public class DiningTableService {
 
     private final DiningTableRepository diningTableRepository;
     private final OrderRepository orderRepository;
+    private final TableBoard tableBoard;
+    private final CatalogVersions catalogVersions;
 
+    // Đọc bằng projection (chỉ các cột của response), không nạp entity
     public List<DiningTableResponse> getAll(TableStatus status, String keyword) {
-        String normalizedKeyword = normalizeKeyword(keyword);
-        return diningTableRepository.findByFilters(status, normalizedKeyword)
-                .stream()
-                .map(DiningTableMapper::toResponse)
+        if (SearchUtils.fold(keyword).isEmpty()) {
+            return status != null
+                    ? diningTableRepository.findResponsesByStatus(status)
+                    : diningTableRepository.findAllResponses();
+        }
+        // Có từ khóa → lấy id đã xếp hạng từ chỉ mục trong TableBoard, rồi đọc theo khóa chính
+        List<Long> rankedIds = tableBoard.searchTableIds(keyword);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, DiningTableResponse> byId = diningTableRepository.findResponsesByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(DiningTableResponse::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(t -> t != null && (status == null || status.name().equals(t.getStatus())))
                 .toList();
     }
 
+    // Sơ đồ bàn đọc từ bộ nhớ — không truy vấn DB
+    public List<TableBoardResponse> getBoard() {
+        return tableBoard.getAll();
+    }
+
     public DiningTableResponse getById(Long id) {
         DiningTable table = findByIdOrThrow(id);
         return DiningTableMapper.toResponse(table);
@@ -37,8 +61,10 @@ public class DiningTableService {
     @Transactional
     public DiningTableResponse create(DiningTableRequest request) {
         validateUniqueName(request.getName().trim(), null);
-        DiningTable table = DiningTableMapper.toEntity(request);
-        return DiningTableMapper.toResponse(diningTableRepository.save(table));
+        DiningTable table = diningTableRepository.save(DiningTableMapper.toEntity(request));
+        tableBoard.update(table, null);
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
+        return DiningTableMapper.toResponse(table);
     }
 
     @Transactional
@@ -50,6 +76,8 @@ public class DiningTableService {
         table.setSeats(request.getSeats());
         table.setNote(request.getNote() != null ? request.getNote() : "");
 
+        tableBoard.updateTable(table);
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
         return DiningTableMapper.toResponse(diningTableRepository.save(table));
     }
 
@@ -57,6 +85,8 @@ public class DiningTableService {
     public DiningTableResponse updateStatus(Long id, TableStatus status) {
         DiningTable table = findByIdOrThrow(id);
         table.setStatus(status);
+        tableBoard.updateTable(table);
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
         return DiningTableMapper.toResponse(diningTableRepository.save(table));
     }
 
@@ -70,6 +100,8 @@ public class DiningTableService {
             throw new IllegalArgumentException("Không thể xoá bàn này vì đã có lịch sử đơn hàng");
         }
         diningTableRepository.delete(table);
+        tableBoard.remove(id);
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
     }
 
     private DiningTable findByIdOrThrow(Long id) {
@@ -78,7 +110,7 @@ public class DiningTableService {
     }
 
     private void validateUniqueName(String name, Long excludeId) {
-        diningTableRepository.findByFilters(null, "").stream()
+        diningTableRepository.findAll().stream()
                 .filter(t -> t.getName().equalsIgnoreCase(name))
                 .filter(t -> excludeId == null || !t.getId().equals(excludeId))
                 .findFirst()
@@ -86,8 +118,4 @@ public class DiningTableService {
                     throw new IllegalArgumentException("Tên bàn '" + name + "' đã tồn tại");
                 });
     }
-
-    private String normalizeKeyword(String keyword) {
-        return (keyword == null || keyword.isBlank()) ? "" : keyword.trim();
-    }
 }
@@ -0,0 +1,158 @@
+package org.example.quannuoc.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.quannuoc.dto.response.KitchenItemResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Đẩy hàng đợi bếp qua Server-Sent Events.
+// Người ghi (OrderService) chỉ offer vào buffer có giới hạn của từng subscriber rồi trả về ngay;
+// việc gửi qua mạng chạy trên thread pool riêng. Subscriber nào để buffer đầy sẽ bị ngắt
+// (trình duyệt tự kết nối lại và nhận snapshot mới).
+@Service
+public class KitchenStreamService {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String ITEM_ADDED = "item-added";
+    public static final String ITEM_UPDATED = "item-updated";
+    public static final String ITEM_SERVED = "item-served";
+    // Món rời khỏi hàng đợi bếp: bị xóa/hủy hoặc order đã thanh toán
+    public static final String ITEM_CANCELLED = "item-cancelled";
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenStreamService.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    public KitchenStreamService(
+            @Value("${app.kitchen.stream.buffer-size:256}") int bufferSize,
+            @Value("${app.kitchen.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.kitchen.stream.sender-threads:4}") int senderThreads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger seq = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "kitchen-sse-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Đăng ký trước rồi mới lấy snapshot để không lỡ sự kiện xảy ra giữa chừng
+    // (client cập nhật theo id nên nhận trùng 1 món là vô hại)
+    public SseEmitter subscribe(Supplier<List<KitchenItemResponse>> snapshot) {
+        return subscribe(snapshot, new SseEmitter(timeoutMs));
+    }
+
+    // Tách riêng để test truyền emitter tự ghi nhận / chặn lại như client chậm
+    SseEmitter subscribe(Supplier<List<KitchenItemResponse>> snapshot, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new LinkedBlockingDeque<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscribers.add(subscriber);
+
+        if (!subscriber.queue.offerFirst(new Event(SNAPSHOT, snapshot.get()))) {
+            close(subscriber);
+            return emitter;
+        }
+        subscriber.ready = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public void publish(String name, KitchenItemResponse item) {
+        publishAll(name, List.of(item));
+    }
+
+    public void publishAll(String name, Collection<KitchenItemResponse> items) {
+        if (items.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        for (KitchenItemResponse item : items) {
+            Event event = new Event(name, item);
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    log.warn("Kitchen SSE subscriber quá chậm (buffer {} đầy) — ngắt kết nối", bufferSize);
+                    close(subscriber);
+                }
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::close);
+        sender.shutdownNow();
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    // Mỗi subscriber có tối đa 1 tác vụ drain đang chạy → thứ tự sự kiện được giữ nguyên
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.ready && !subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Event event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Sự kiện có thể đến sau lần poll cuối nhưng trước khi hạ cờ draining
+        schedule(subscriber);
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingDeque<Event> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean ready;
+
+        private Subscriber(SseEmitter emitter, BlockingDeque<Event> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
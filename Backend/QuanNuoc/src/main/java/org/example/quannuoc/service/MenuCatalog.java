@@ -0,0 +1,259 @@
+package org.example.quannuoc.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.response.CatalogStatsResponse;
+import org.example.quannuoc.dto.response.CategoryResponse;
+import org.example.quannuoc.dto.response.MenuItemResponse;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.MenuItemRepository;
+import org.example.quannuoc.util.SearchIndex;
+import org.example.quannuoc.util.SearchUtils;
+import org.example.quannuoc.util.TransactionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bản sao trong bộ nhớ của thực đơn (món + loại món), đánh chỉ mục theo id, theo loại và theo tên (không dấu).
+// Đọc không khóa trên snapshot bất biến; mọi thay đổi tạo snapshot mới sau khi transaction commit.
+@Component
+@RequiredArgsConstructor
+public class MenuCatalog {
+
+    private final MenuItemRepository menuItemRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Thế hệ theo id, tăng (trong lock) mỗi lần ghi đã commit. Lần nạp lỡ (miss) nhớ thế hệ trước khi đọc DB
+    // và bỏ qua việc nạp nếu thế hệ đã đổi — tránh hồi sinh món vừa xóa hoặc ghi đè bản mới hơn
+    private final Map<Long, Long> itemGenerations = new ConcurrentHashMap<>();
+    private final Map<Long, Long> categoryGenerations = new ConcurrentHashMap<>();
+
+    // Không dùng synchronized: load() chờ DB khi giữ lock sẽ ghim carrier thread của virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    // ─── Đọc ─────────────────────────────────────────────────────────────────
+
+    public Optional<MenuItemResponse> findMenuItem(Long id) {
+        MenuItemResponse item = snapshot().items().get(id);
+        if (item != null) {
+            hits.increment();
+            return Optional.of(item);
+        }
+        // Không có trong catalog → đọc thẳng DB rồi nạp vào (nếu tồn tại và chưa bị ghi trong lúc đọc)
+        misses.increment();
+        long generation = itemGenerations.getOrDefault(id, 0L);
+        return menuItemRepository.findResponseById(id).map(loaded -> {
+            update(current -> itemGenerations.getOrDefault(id, 0L) == generation
+                    ? withMenuItem(current, loaded)
+                    : current);
+            return loaded;
+        });
+    }
+
+    public List<MenuItemResponse> findMenuItems(Long categoryId, Boolean available, String keyword) {
+        Snapshot current = snapshot();
+        hits.increment();
+        Collection<MenuItemResponse> source;
+        if (SearchUtils.fold(keyword).isEmpty()) {
+            source = categoryId != null
+                    ? current.itemsByCategory().getOrDefault(categoryId, List.of())
+                    : current.items().values();
+        } else {
+            // Có từ khóa → tra chỉ mục tên (không dấu), giữ thứ tự xếp hạng
+            source = current.nameIndex().search(keyword).stream()
+                    .map(current.items()::get)
+                    .filter(i -> categoryId == null || categoryId.equals(i.getCategoryId()))
+                    .toList();
+        }
+        return source.stream()
+                .filter(i -> available == null || available.equals(i.getAvailable()))
+                .toList();
+    }
+
+    public Optional<CategoryResponse> findCategory(Long id) {
+        CategoryResponse category = snapshot().categories().get(id);
+        if (category != null) {
+            hits.increment();
+            return Optional.of(category);
+        }
+        misses.increment();
+        long generation = categoryGenerations.getOrDefault(id, 0L);
+        return categoryRepository.findResponseById(id).map(loaded -> {
+            update(current -> categoryGenerations.getOrDefault(id, 0L) == generation
+                    ? withCategory(current, loaded)
+                    : current);
+            return loaded;
+        });
+    }
+
+    public List<CategoryResponse> getCategories() {
+        Snapshot current = snapshot();
+        hits.increment();
+        return current.categories().values().stream()
+                .sorted(Comparator.comparing(CategoryResponse::getDisplayOrder))
+                .toList();
+    }
+
+    // Tên món cho mapper — không chạm vào proxy lazy của entity
+    public String getMenuItemName(MenuItem menuItem) {
+        return findMenuItem(menuItem.getId())
+                .map(MenuItemResponse::getName)
+                .orElseGet(menuItem::getName);
+    }
+
+    public CatalogStatsResponse getStats() {
+        Snapshot current = snapshot;
+        return CatalogStatsResponse.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .menuItems(current != null ? current.items().size() : 0)
+                .categories(current != null ? current.categories().size() : 0)
+                .build();
+    }
+
+    // ─── Ghi (gọi từ MenuItemService / CategoryService) ─────────────────────
+
+    public void putMenuItem(MenuItemResponse item) {
+        TransactionUtils.afterCommit(() -> write(itemGenerations, item.getId(), current -> withMenuItem(current, item)));
+    }
+
+    public void removeMenuItem(Long id) {
+        TransactionUtils.afterCommit(() -> write(itemGenerations, id, current -> {
+            Map<Long, MenuItemResponse> items = new LinkedHashMap<>(current.items());
+            if (items.remove(id) != null) {
+                evictions.increment();
+            }
+            return Snapshot.of(items.values(), current.categories().values());
+        }));
+    }
+
+    public void putCategory(CategoryResponse category) {
+        TransactionUtils.afterCommit(() -> write(categoryGenerations, category.getId(),
+                current -> withCategory(current, category)));
+    }
+
+    public void removeCategory(Long id) {
+        TransactionUtils.afterCommit(() -> write(categoryGenerations, id, current -> {
+            Map<Long, CategoryResponse> categories = new LinkedHashMap<>(current.categories());
+            if (categories.remove(id) != null) {
+                evictions.increment();
+            }
+            return Snapshot.of(current.items().values(), categories.values());
+        }));
+    }
+
+    // Bỏ toàn bộ snapshot, lần đọc sau sẽ nạp lại từ DB
+    public void invalidate() {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                evictions.add(snapshot.items().size() + snapshot.categories().size());
+            }
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    misses.increment();
+                    current = load();
+                    snapshot = current;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    // 2 câu projection (loại, món JOIN loại) — không nạp entity nào vào persistence context
+    private Snapshot load() {
+        return Snapshot.of(menuItemRepository.findAllResponses(), categoryRepository.findAllResponses());
+    }
+
+    // Thay thế bản cũ không tính là eviction — evictions chỉ đếm mục thực sự bị bỏ khỏi catalog
+    private static Snapshot withMenuItem(Snapshot current, MenuItemResponse item) {
+        Map<Long, MenuItemResponse> items = new LinkedHashMap<>(current.items());
+        items.put(item.getId(), item);
+        return Snapshot.of(items.values(), current.categories().values());
+    }
+
+    private static Snapshot withCategory(Snapshot current, CategoryResponse category) {
+        Map<Long, CategoryResponse> categories = new LinkedHashMap<>(current.categories());
+        categories.put(category.getId(), category);
+        // Đổi tên loại → cập nhật categoryName trên các món thuộc loại đó
+        List<MenuItemResponse> items = current.items().values().stream()
+                .map(i -> category.getId().equals(i.getCategoryId())
+                        ? i.toBuilder().categoryName(category.getName()).build()
+                        : i)
+                .toList();
+        return Snapshot.of(items, categories.values());
+    }
+
+    // Ghi đã commit: tăng thế hệ của id cùng lock với việc đổi snapshot (kể cả khi chưa có snapshot)
+    private void write(Map<Long, Long> generations, Long id, Function<Snapshot, Snapshot> change) {
+        lock.lock();
+        try {
+            generations.merge(id, 1L, Long::sum);
+            if (snapshot != null) {
+                snapshot = change.apply(snapshot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(Function<Snapshot, Snapshot> change) {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot = change.apply(snapshot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Snapshot(Map<Long, MenuItemResponse> items,
+                            Map<Long, CategoryResponse> categories,
+                            Map<Long, List<MenuItemResponse>> itemsByCategory,
+                            SearchIndex<Long> nameIndex) {
+
+        static Snapshot of(Collection<MenuItemResponse> items, Collection<CategoryResponse> categories) {
+            Map<Long, MenuItemResponse> byId = new TreeMap<>();
+            items.forEach(i -> byId.put(i.getId(), i));
+            Map<Long, CategoryResponse> categoriesById = new HashMap<>();
+            categories.forEach(c -> categoriesById.put(c.getId(), c));
+            Map<Long, List<MenuItemResponse>> byCategory = byId.values().stream()
+                    .filter(i -> i.getCategoryId() != null)
+                    .collect(Collectors.groupingBy(MenuItemResponse::getCategoryId, Collectors.toUnmodifiableList()));
+            Map<Long, String> names = new LinkedHashMap<>();
+            byId.values().forEach(i -> names.put(i.getId(), i.getName()));
+            return new Snapshot(Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableMap(categoriesById),
+                    Collections.unmodifiableMap(byCategory),
+                    SearchIndex.of(names));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.example.quannuoc.service;
 
 import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.MenuItemRequest;
+import org.example.quannuoc.dto.response.CatalogStatsResponse;
 import org.example.quannuoc.dto.response.MenuItemResponse;
 import org.example.quannuoc.entity.Category;
 import org.example.quannuoc.entity.MenuItem;
@@ -22,25 +23,28 @@ public class MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final CategoryRepository categoryRepository;
     private final OrderItemRepository orderItemRepository;
+    private final MenuCatalog menuCatalog;
+    private final CatalogVersions catalogVersions;
 
+    // Đọc từ MenuCatalog trong bộ nhớ — không truy vấn DB
     public List<MenuItemResponse> getAll(Long categoryId, Boolean available, String keyword) {
-        return menuItemRepository
-                .findByFilters(categoryId, available, (keyword == null || keyword.isBlank()) ? "" : keyword)
-                .stream()
-                .map(MenuItemMapper::toResponse)
-                .toList();
+        return menuCatalog.findMenuItems(categoryId, available, keyword);
     }
 
     public MenuItemResponse getById(Long id) {
-        MenuItem item = findByIdOrThrow(id);
-        return MenuItemMapper.toResponse(item);
+        return menuCatalog.findMenuItem(id)
+                .orElseThrow(() -> new ResourceNotFoundException("MenuItem", id));
+    }
+
+    public CatalogStatsResponse getCatalogStats() {
+        return menuCatalog.getStats();
     }
 
     @Transactional
     public MenuItemResponse create(MenuItemRequest request) {
         Category category = findCategoryOrThrow(request.getCategoryId());
         MenuItem item = MenuItemMapper.toEntity(request, category);
-        return MenuItemMapper.toResponse(menuItemRepository.save(item));
+        return cache(MenuItemMapper.toResponse(menuItemRepository.save(item)));
     }
 
     @Transactional
@@ -55,14 +59,14 @@ public class MenuItemService {
         if (request.getAvailable() != null) {
             item.setAvailable(request.getAvailable());
         }
-        return MenuItemMapper.toResponse(menuItemRepository.save(item));
+        return cache(MenuItemMapper.toResponse(menuItemRepository.save(item)));
     }
 
     @Transactional
     public MenuItemResponse toggleAvailability(Long id) {
         MenuItem item = findByIdOrThrow(id);
         item.setAvailable(!item.getAvailable());
-        return MenuItemMapper.toResponse(menuItemRepository.save(item));
+        return cache(MenuItemMapper.toResponse(menuItemRepository.save(item)));
     }
 
     @Transactional
@@ -72,6 +76,15 @@ public class MenuItemService {
             throw new IllegalArgumentException("Không thể xoá món ăn này vì đã có trong hoá đơn/order của khách");
         }
         menuItemRepository.delete(item);
+        menuCatalog.removeMenuItem(id);
+        catalogVersions.bump(CatalogVersions.Catalog.MENU);
+    }
+
+    // Cập nhật MenuCatalog + phiên bản thực đơn sau khi transaction commit
+    private MenuItemResponse cache(MenuItemResponse response) {
+        menuCatalog.putMenuItem(response);
+        catalogVersions.bump(CatalogVersions.Catalog.MENU);
+        return response;
     }
 
     private MenuItem findByIdOrThrow(Long id) {
@@ -83,8 +96,4 @@ public class MenuItemService {
         return categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", categoryId));
     }
-
-    private String normalizeKeyword(String keyword) {
-        return (keyword == null || keyword.isBlank()) ? "" : keyword.trim();
-    }
 }
@@ -0,0 +1,168 @@
+package org.example.quannuoc.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.request.ExportFormat;
+import org.example.quannuoc.repository.OrderExportRepository;
+import org.example.quannuoc.repository.OrderExportRepository.Line;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final OrderExportRepository orderExportRepository;
+    private final ObjectMapper objectMapper;
+
+    // Kiểm tra trước khi ghi header response, để lỗi vẫn trả về JSON 400 bình thường
+    public void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Ngày bắt đầu phải trước hoặc bằng ngày kết thúc");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Chỉ xuất tối đa " + MAX_RANGE_DAYS + " ngày mỗi lần");
+        }
+    }
+
+    // Xuất order đã thanh toán trong [from, to]: mỗi dòng đọc từ cursor được ghi ra ngay,
+    // đẩy xuống client sau mỗi lô FETCH_SIZE dòng — bộ nhớ không phụ thuộc độ dài khoảng ngày
+    @Transactional(readOnly = true)
+    public void export(LocalDate from, LocalDate to, ExportFormat format, OutputStream out) throws IOException {
+        checkRange(from, to);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        LineWriter lines = format == ExportFormat.CSV ? new CsvLineWriter(writer) : new NdjsonLineWriter(writer, objectMapper);
+        long[] count = {0};
+        try {
+            orderExportRepository.streamPaidLines(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), line -> {
+                try {
+                    lines.write(line);
+                    if (++count[0] % OrderExportRepository.FETCH_SIZE == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        lines.finish();
+        writer.flush();
+    }
+
+    private interface LineWriter {
+        void write(Line line) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // CSV kèm BOM để Excel đọc đúng tiếng Việt
+    private static final class CsvLineWriter implements LineWriter {
+
+        private final Writer writer;
+
+        CsvLineWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write('\uFEFF');
+            writer.write("order_id,table,created_at,paid_at,payment_method,order_total,order_note,"
+                    + "item_id,menu_item,quantity,unit_price,line_total,status,item_note\r\n");
+        }
+
+        @Override
+        public void write(Line line) throws IOException {
+            writer.write(line.orderId() + "," + csv(line.tableName()) + "," + line.createdAt() + "," + line.paidAt() + ","
+                    + csv(line.paymentMethod()) + "," + line.totalAmount() + "," + csv(line.orderNote()) + ","
+                    + line.itemId() + "," + csv(line.menuItemName()) + "," + line.quantity() + ","
+                    + line.priceAtOrder() + "," + (line.priceAtOrder() * line.quantity()) + ","
+                    + line.status() + "," + csv(line.itemNote()) + "\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String csv(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    // Các dòng cùng order đến liền nhau (ORDER BY o.id) nên gom thành 1 object mà không cần giữ cả order trong bộ nhớ
+    private static final class NdjsonLineWriter implements LineWriter {
+
+        private final Writer writer;
+        private final ObjectMapper objectMapper;
+        private JsonGenerator json;
+        private Long currentOrderId;
+
+        NdjsonLineWriter(Writer writer, ObjectMapper objectMapper) {
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void write(Line line) throws IOException {
+            if (!Objects.equals(currentOrderId, line.orderId())) {
+                finish();
+                startOrder(line);
+            }
+            json.writeStartObject();
+            json.writeNumberField("id", line.itemId());
+            json.writeStringField("menuItem", line.menuItemName());
+            json.writeNumberField("quantity", line.quantity());
+            json.writeNumberField("unitPrice", line.priceAtOrder());
+            json.writeNumberField("lineTotal", line.priceAtOrder() * line.quantity());
+            json.writeStringField("status", line.status());
+            json.writeStringField("note", line.itemNote());
+            json.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (json == null) {
+                return;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+            json = null;
+            currentOrderId = null;
+        }
+
+        private void startOrder(Line line) throws IOException {
+            currentOrderId = line.orderId();
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            json.writeStartObject();
+            json.writeNumberField("id", line.orderId());
+            json.writeStringField("table", line.tableName());
+            json.writeStringField("createdAt", line.createdAt().toString());
+            json.writeStringField("paidAt", line.paidAt().toString());
+            json.writeStringField("paymentMethod", line.paymentMethod());
+            json.writeNumberField("totalAmount", line.totalAmount());
+            json.writeStringField("note", line.orderNote());
+            json.writeArrayFieldStart("items");
+        }
+    }
+}
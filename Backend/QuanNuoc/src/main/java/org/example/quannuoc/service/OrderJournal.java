@@ -0,0 +1,252 @@
+package org.example.quannuoc.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.quannuoc.util.JournalEvent;
+import org.example.quannuoc.util.JournalReplay;
+import org.example.quannuoc.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Journal chỉ-ghi-thêm các thay đổi order trên đĩa cục bộ, ngoài Postgres (không làm chậm transaction).
+// Mỗi ngày 1 chuỗi segment cố định kích thước (orders-yyyyMMdd-NNNN.journal), ghi qua memory-mapped buffer;
+// đầy hoặc sang ngày (theo app.time-zone) thì mở segment mới. Sau khi transaction commit, sự kiện vào hàng đợi
+// và 1 luồng ghi riêng gom hết hàng đợi ghi 1 lượt — thread request không chờ lock hay fsync.
+// fsync theo app.journal.fsync: GROUP = gom nhiều lần ghi, force định kỳ (app.journal.flush-interval-ms);
+// ALWAYS = force sau mỗi lượt ghi của luồng ghi; NONE = để hệ điều hành tự ghi xuống đĩa.
+// Process chết thì dữ liệu đã nằm trong page cache vẫn còn; chỉ mất điện/OS crash mới mất phần chưa force.
+@Component
+public class OrderJournal {
+
+    public enum FsyncPolicy {
+        NONE, GROUP, ALWAYS
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final FsyncPolicy fsync;
+    private final ZoneId zone;
+
+    // Sự kiện đã commit chờ luồng ghi; lấy ra và ghi trong cùng 1 lần giữ lock nên thứ tự được giữ nguyên
+    private final Queue<List<JournalEvent>> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "order-journal");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder forces = new LongAdder();
+
+    // Segment đang ghi — chỉ đọc/ghi khi giữ lock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private LocalDate segmentDay;
+    private boolean dirty;
+
+    public OrderJournal(
+            @Value("${app.journal.enabled:true}") boolean enabled,
+            @Value("${app.journal.dir:data/journal}") String dir,
+            @Value("${app.journal.segment-size-bytes:67108864}") int segmentSize,
+            @Value("${app.journal.fsync:GROUP}") FsyncPolicy fsync,
+            @Value("${app.time-zone:Asia/Ho_Chi_Minh}") ZoneId zone) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.zone = zone;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public long getForceCount() {
+        return forces.sum();
+    }
+
+    // Dựng sự kiện trong transaction, chỉ ghi journal khi commit thành công (bởi luồng ghi, không chờ)
+    public void appendAfterCommit(List<JournalEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            pending.add(events);
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.warn("Journal order đang đóng — {} sự kiện chờ lần drain cuối", events.size());
+            }
+        });
+    }
+
+    // Ghi đồng bộ trên thread gọi (luồng ghi, công cụ khôi phục, test).
+    // Lỗi ghi journal chỉ log — thay đổi đã commit trong DB, không làm hỏng request
+    public void append(List<JournalEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (JournalEvent event : events) {
+                int size = event.encodedSize();
+                if (size + JournalEvent.HEADER_SIZE > segmentSize) {
+                    log.error("Sự kiện journal {} ({} byte) lớn hơn segment — bỏ qua", event.type(), size);
+                    continue;
+                }
+                LocalDate day = event.day(zone);
+                // Chừa HEADER_SIZE byte 0 cuối segment làm dấu kết thúc cho reader
+                if (buffer == null || !day.equals(segmentDay) || buffer.remaining() < size + JournalEvent.HEADER_SIZE) {
+                    roll(day, size + JournalEvent.HEADER_SIZE);
+                }
+                event.encode(buffer);
+                appended.increment();
+            }
+            dirty = true;
+            if (fsync == FsyncPolicy.ALWAYS) {
+                force();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Không ghi được journal order vào {}", dir, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Group commit: ghi nốt hàng đợi rồi 1 lần force cho mọi sự kiện ghi từ lần trước
+    @Scheduled(fixedDelayString = "${app.journal.flush-interval-ms:50}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            drain();
+            if (fsync == FsyncPolicy.GROUP) {
+                force();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            drain();
+            closeSegment();
+        } catch (IOException e) {
+            log.warn("Đóng segment journal lỗi", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    // Gom mọi lô đang chờ thành 1 lượt ghi (ALWAYS: 1 lần force cho cả lượt)
+    private void drain() {
+        lock.lock();
+        try {
+            List<JournalEvent> events = new ArrayList<>();
+            for (List<JournalEvent> batch; (batch = pending.poll()) != null; ) {
+                events.addAll(batch);
+            }
+            append(events);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void force() {
+        if (dirty && buffer != null) {
+            buffer.force();
+            forces.increment();
+            dirty = false;
+        }
+    }
+
+    // Sang segment mới; lần đầu trong ngày (vd. sau khi khởi động lại) thì ghi tiếp segment cuối nếu còn chỗ
+    private void roll(LocalDate day, int needed) throws IOException {
+        boolean resume = !day.equals(segmentDay);
+        closeSegment();
+        Files.createDirectories(dir);
+        List<Path> existing = JournalReplay.segments(dir, day);
+        int seq = existing.isEmpty() ? 0 : JournalReplay.sequenceOf(existing.get(existing.size() - 1));
+        if (resume && seq > 0) {
+            openSegment(day, seq);
+            if (buffer.remaining() >= needed) {
+                return;
+            }
+            closeSegment();
+        }
+        openSegment(day, seq + 1);
+    }
+
+    private void openSegment(LocalDate day, int seq) throws IOException {
+        Path file = dir.resolve(JournalReplay.segmentName(day, seq));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Kích thước map cố định: file mới được cấp phát đủ segmentSize (phần chưa ghi toàn byte 0)
+        int size = (int) Math.max(channel.size(), segmentSize);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // Bỏ qua các bản ghi đã có; dừng ở bản ghi trống hoặc ghi dở (bị ghi đè)
+        while (JournalEvent.decode(buffer) != null) {
+            // tiến tới cuối dữ liệu hợp lệ
+        }
+        segmentDay = day;
+        log.info("Journal order: ghi vào {} từ byte {}", file, buffer.position());
+    }
+
+    private void closeSegment() throws IOException {
+        if (buffer != null) {
+            if (fsync != FsyncPolicy.NONE) {
+                force();
+            }
+            buffer = null;
+            dirty = false;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.repository.OrderPartitionRepository;
+import org.example.quannuoc.util.OrderPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bảo trì partition theo tháng của bảng orders: tạo trước partition các tháng tới, lưu trữ tháng quá hạn giữ
+// (COMPACT gộp vào orders_archive, DETACH tách sang schema archive). Mỗi bước (tạo 1 tháng / lưu trữ 1 tháng)
+// là 1 transaction ngắn riêng: khóa ACCESS EXCLUSIVE trên orders chỉ giữ trong 1 bước, không suốt cả lượt.
+// Mỗi bước giữ advisory lock để nhiều instance không làm cùng lúc, và kiểm tra lại trạng thái sau khi có khóa.
+// Lúc khởi động chỉ tạo trước partition; lưu trữ để cho lịch chạy (giờ vắng khách), sau đó đối soát dòng món
+// mồ côi (không còn FK order_items → orders) — chỉ báo cáo (log + gauge quannuoc.order_items.orphans).
+// Không làm gì khi orders chưa được partition (H2 ở test/bench).
+@Service
+public class OrderPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionMaintenance.class);
+
+    private final OrderPartitionRepository orderPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final OrderPartitions.ArchiveMode archiveMode;
+
+    private volatile long lastOrphanCount;
+
+    public OrderPartitionMaintenance(OrderPartitionRepository orderPartitionRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.orders.partition.premake-months:3}") int premakeMonths,
+                                     @Value("${app.orders.archive.retention-months:12}") int retentionMonths,
+                                     @Value("${app.orders.archive.mode:COMPACT}") OrderPartitions.ArchiveMode archiveMode) {
+        this.orderPartitionRepository = orderPartitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.archiveMode = archiveMode;
+    }
+
+    // Lỗi chỉ log: thiếu partition tháng mới thì order thanh toán tạm nằm ở orders_open, lượt sau sẽ chuyển đi
+    @EventListener(ApplicationReadyEvent.class)
+    public void premakeOnStartup() {
+        try {
+            maintain(YearMonth.now(), false);
+        } catch (RuntimeException e) {
+            log.error("Tạo trước partition bảng orders lỗi", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.orders.partition.cron:0 30 3 * * *}")
+    public void scheduledMaintain() {
+        try {
+            maintain(YearMonth.now());
+            auditOrphanItems();
+        } catch (RuntimeException e) {
+            log.error("Bảo trì partition bảng orders lỗi", e);
+        }
+    }
+
+    // Dòng món mồ côi = order bị xóa/chuyển mà không kéo theo món (DETACH đã chuyển món cùng order)
+    public long auditOrphanItems() {
+        if (!orderPartitionRepository.isPartitioned()) {
+            return 0;
+        }
+        long orphans = orderPartitionRepository.countOrphanItems();
+        lastOrphanCount = orphans;
+        if (orphans > 0) {
+            log.warn("Có {} dòng món không còn order tương ứng trong orders", orphans);
+        }
+        return orphans;
+    }
+
+    public long getLastOrphanCount() {
+        return lastOrphanCount;
+    }
+
+    public OrderPartitions.Plan maintain(YearMonth current) {
+        return maintain(current, true);
+    }
+
+    // null nếu bỏ qua (không partition hoặc instance khác đang chạy). Kế hoạch trả về là kế hoạch lúc bắt đầu;
+    // bước nào đã được instance khác làm xong thì bỏ qua
+    public OrderPartitions.Plan maintain(YearMonth current, boolean archive) {
+        if (!orderPartitionRepository.isPartitioned()) {
+            return null;
+        }
+        OrderPartitions.Plan plan = OrderPartitions.plan(current,
+                orderPartitionRepository.monthlyPartitions(), premakeMonths, retentionMonths);
+        for (YearMonth month : plan.create()) {
+            boolean done = step(existing -> {
+                if (existing.contains(month)) {
+                    return;
+                }
+                int moved = orderPartitionRepository.createMonthly(month);
+                log.info("Đã tạo partition {} (chuyển {} order từ {})",
+                        OrderPartitions.monthly(month), moved, OrderPartitions.OPEN);
+            });
+            if (!done) {
+                return null;
+            }
+        }
+        if (!archive) {
+            return new OrderPartitions.Plan(plan.create(), List.of(), plan.archiveBefore());
+        }
+        List<YearMonth> months = plan.archive();
+        for (int i = 0; i < months.size(); i++) {
+            YearMonth month = months.get(i);
+            // COMPACT từng tháng: mốc của orders_archive tiến tới hết tháng này, bước cuối tới archiveBefore
+            YearMonth before = i == months.size() - 1 ? plan.archiveBefore() : month.plusMonths(1);
+            boolean done = step(existing -> {
+                if (existing.contains(month)) {
+                    archive(month, before);
+                }
+            });
+            if (!done) {
+                return null;
+            }
+        }
+        return plan;
+    }
+
+    // 1 transaction: advisory lock → đọc lại danh sách partition → làm 1 bước. false nếu instance khác giữ khóa
+    private boolean step(Consumer<List<YearMonth>> action) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!orderPartitionRepository.tryLock()) {
+                log.info("Instance khác đang bảo trì partition bảng orders, bỏ qua");
+                return false;
+            }
+            action.accept(orderPartitionRepository.monthlyPartitions());
+            return true;
+        }));
+    }
+
+    private void archive(YearMonth month, YearMonth before) {
+        switch (archiveMode) {
+            case COMPACT -> {
+                orderPartitionRepository.compactIntoArchive(List.of(month), before);
+                log.info("Đã gộp partition {} vào {} (trước {})",
+                        OrderPartitions.monthly(month), OrderPartitions.ARCHIVE, before);
+            }
+            case DETACH -> {
+                int items = orderPartitionRepository.detachToArchive(month);
+                log.info("Đã tách partition {} sang schema {} ({} dòng món)",
+                        OrderPartitions.monthly(month), OrderPartitions.ARCHIVE_SCHEMA, items);
+            }
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package org.example.quannuoc.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import org.example.quannuoc.dto.request.*;
+import org.example.quannuoc.dto.response.CursorPageResponse;
+import org.example.quannuoc.dto.response.ItemStatusTransitionResponse;
 import org.example.quannuoc.dto.response.OrderResponse;
 import org.example.quannuoc.dto.response.KitchenItemResponse;
+import org.example.quannuoc.dto.response.MenuItemResponse;
+import org.example.quannuoc.dto.response.RejectedItemResponse;
 import org.example.quannuoc.entity.*;
 import org.example.quannuoc.exception.ResourceNotFoundException;
 import org.example.quannuoc.mapper.OrderMapper;
@@ -11,54 +17,117 @@ import org.example.quannuoc.repository.DiningTableRepository;
 import org.example.quannuoc.repository.MenuItemRepository;
 import org.example.quannuoc.repository.OrderItemRepository;
 import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.util.HistoryCursor;
+import org.example.quannuoc.util.JournalEvent;
+import org.example.quannuoc.util.RetryOnConflict;
+import org.example.quannuoc.util.TransactionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    // Món bếp còn phải lo: nội dung snapshot của kênh SSE và điều kiện sinh sự kiện
+    private static final Set<OrderItemStatus> KITCHEN_STATUSES = EnumSet.of(OrderItemStatus.PENDING, OrderItemStatus.SERVING);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final DiningTableRepository diningTableRepository;
     private final MenuItemRepository menuItemRepository;
+    private final SalesRollupService salesRollupService;
+    private final MenuCatalog menuCatalog;
+    private final KitchenStreamService kitchenStreamService;
+    private final TableBoard tableBoard;
+    private final BestSellerTracker bestSellerTracker;
+    private final CatalogVersions catalogVersions;
+    private final OrderJournal orderJournal;
+    private final EntityManager entityManager;
 
     // Lấy tất cả order đang mở
     public List<OrderResponse> getAllActive() {
-        return orderRepository.findByPaidAtIsNull().stream()
-                .map(OrderMapper::toResponse)
+        return orderRepository.findWithItemsByPaidAtIsNull().stream()
+                .map(this::toResponse)
                 .toList();
     }
 
-    // Lấy lịch sử order có phân trang
+    // Lấy lịch sử order có phân trang — mỗi trang cố định 3 truy vấn (id, count, nạp order + món)
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getHistory(Pageable pageable) {
-        return orderRepository.findByPaidAtIsNotNullOrderByPaidAtDesc(pageable)
-                .map(OrderMapper::toResponse);
+        Page<Long> ids = orderRepository.findIdsByPaidAtIsNotNullOrderByPaidAtDesc(pageable);
+        Map<Long, Order> orders = ids.isEmpty() ? Map.of()
+                : orderRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                        .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.map(id -> toResponse(orders.get(id)));
+    }
+
+    // Lịch sử theo cursor (paidAt, id): lấy dư 1 dòng để biết còn trang sau, không đếm tổng
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getHistory(String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Kích thước trang phải từ 1 đến " + MAX_HISTORY_PAGE_SIZE);
+        }
+        Limit limit = Limit.of(size + 1);
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = orderRepository.findHistoryIds(limit);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            ids = orderRepository.findHistoryIdsAfter(after.paidAt(), after.id(), limit);
+        }
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+        Map<Long, Order> orders = pageIds.isEmpty() ? Map.of()
+                : orderRepository.findWithItemsByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = orders.get(pageIds.get(pageIds.size() - 1));
+            nextCursor = new HistoryCursor(last.getPaidAt(), last.getId()).encode();
+        }
+        return CursorPageResponse.<OrderResponse>builder()
+                .items(pageIds.stream().map(id -> toResponse(orders.get(id))).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     // Lấy order đang mở (chưa thanh toán) của bàn
     public OrderResponse getActiveOrderByTableId(Long tableId) {
         findTableOrThrow(tableId);
-        Order order = orderRepository.findByDiningTableIdAndPaidAtIsNull(tableId)
+        Order order = orderRepository.findOpenWithItemsByTableId(tableId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order đang mở cho bàn", tableId));
-        return OrderMapper.toResponse(order);
+        return toResponse(order);
     }
 
     // Lấy chi tiết order theo id
     public OrderResponse getById(Long id) {
-        return OrderMapper.toResponse(findOrderOrThrow(id));
+        return toResponse(orderRepository.findWithItemsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", id)));
     }
 
     // Tạo order mới cho bàn
     @Transactional
+    @RetryOnConflict
     public OrderResponse createOrder(OrderRequest request) {
-        DiningTable table = findTableOrThrow(request.getTableId());
+        DiningTable table = findTableForUpdateOrThrow(request.getTableId());
 
         // Kiểm tra bàn chưa có order đang mở
         orderRepository.findByDiningTableIdAndPaidAtIsNull(request.getTableId())
@@ -76,89 +145,109 @@ public class OrderService {
 
         // Lưu order trước để có ID
         Order savedOrder = orderRepository.save(order);
+        List<JournalEvent> events = new ArrayList<>();
+        events.add(orderEvent(JournalEvent.Type.ORDER_OPENED, savedOrder).build());
 
         // Thêm các món ban đầu (nếu có)
         if (request.getItems() != null && !request.getItems().isEmpty()) {
-            for (OrderItemRequest itemReq : request.getItems()) {
-                MenuItem menuItem = findMenuItemOrThrow(itemReq.getMenuItemId());
-                OrderItem orderItem = buildOrderItem(savedOrder, menuItem, itemReq);
-                orderItemRepository.save(orderItem);
-                savedOrder.getItems().add(orderItem);
-            }
-            savedOrder.setTotalAmount(calculateTotalAmount(savedOrder.getItems()));
-            savedOrder = orderRepository.save(savedOrder);
+            List<OrderItem> newItems = buildOrderItems(savedOrder, request.getItems());
+            savedOrder.getItems().addAll(newItems);
+            publishKitchen(KitchenStreamService.ITEM_ADDED, newItems);
+            savedOrder.setTotalAmount(calculateTotalAmount(newItems));
+            newItems.forEach(i -> events.add(itemEvent(JournalEvent.Type.ITEM_ADDED, i).build()));
         }
+        orderJournal.appendAfterCommit(events);
 
         // Cập nhật trạng thái bàn → OCCUPIED
-        table.setStatus(TableStatus.OCCUPIED);
-        diningTableRepository.save(table);
+        changeTableStatus(table, TableStatus.OCCUPIED);
+        tableBoard.update(table, savedOrder);
 
-        return OrderMapper.toResponse(savedOrder);
+        return toResponse(savedOrder);
     }
 
     // Thêm món vào order đang mở
     @Transactional
+    @RetryOnConflict
     public OrderResponse addItemsToOrder(Long orderId, AddOrderItemsRequest request) {
         Order order = findOpenOrderOrThrow(orderId);
 
-        for (OrderItemRequest itemReq : request.getItems()) {
-            MenuItem menuItem = findMenuItemOrThrow(itemReq.getMenuItemId());
-            OrderItem orderItem = buildOrderItem(order, menuItem, itemReq);
-            // Lưu orderItem trước để tránh lỗi TransientObjectException
-            orderItemRepository.save(orderItem);
-            order.getItems().add(orderItem);
-        }
+        List<OrderItem> newItems = buildOrderItems(order, request.getItems());
+        order.getItems().addAll(newItems);
+        publishKitchen(KitchenStreamService.ITEM_ADDED, newItems);
+        orderJournal.appendAfterCommit(newItems.stream()
+                .map(i -> itemEvent(JournalEvent.Type.ITEM_ADDED, i).build())
+                .toList());
 
-        order.setTotalAmount(calculateTotalAmount(order.getItems()));
-        return OrderMapper.toResponse(orderRepository.save(order));
+        addToTotal(order, calculateTotalAmount(newItems));
+        tableBoard.update(order.getDiningTable(), order);
+        return toResponse(orderRepository.save(order));
     }
 
     // Sửa số lượng / ghi chú của 1 order item
     @Transactional
+    @RetryOnConflict
     public OrderResponse updateOrderItem(Long orderId, Long itemId, UpdateOrderItemRequest request) {
         Order order = findOpenOrderOrThrow(orderId);
         OrderItem item = findItemInOrder(order, itemId);
+        long before = lineTotal(item);
 
         item.setQuantity(request.getQuantity());
         item.setNote(request.getNote() != null ? request.getNote() : "");
+        publishKitchen(KitchenStreamService.ITEM_UPDATED, inKitchen(List.of(item)));
+        orderJournal.appendAfterCommit(List.of(itemEvent(JournalEvent.Type.ITEM_UPDATED, item).build()));
 
-        order.setTotalAmount(calculateTotalAmount(order.getItems()));
-        return OrderMapper.toResponse(orderRepository.save(order));
+        addToTotal(order, lineTotal(item) - before);
+        tableBoard.update(order.getDiningTable(), order);
+        return toResponse(orderRepository.save(order));
     }
 
     // Xóa 1 dòng món khỏi order
     @Transactional
+    @RetryOnConflict
     public OrderResponse removeOrderItem(Long orderId, Long itemId) {
         Order order = findOpenOrderOrThrow(orderId);
         OrderItem item = findItemInOrder(order, itemId);
 
+        publishKitchen(KitchenStreamService.ITEM_CANCELLED, inKitchen(List.of(item)));
+        orderJournal.appendAfterCommit(List.of(itemEvent(JournalEvent.Type.ITEM_REMOVED, item).build()));
         order.getItems().remove(item);
-        order.setTotalAmount(calculateTotalAmount(order.getItems()));
-        return OrderMapper.toResponse(orderRepository.save(order));
+        addToTotal(order, -lineTotal(item));
+        tableBoard.update(order.getDiningTable(), order);
+        return toResponse(orderRepository.save(order));
     }
 
     // Thanh toán order
     @Transactional
+    @RetryOnConflict
     public OrderResponse payOrder(Long id, PayOrderRequest request) {
         Order order = findOpenOrderOrThrow(id);
         order.setPaidAt(LocalDateTime.now());
         order.setPaymentMethod(request.getPaymentMethod());
         Order saved = orderRepository.save(order);
+        bestSellerTracker.recordPayment(saved);
+        publishKitchen(KitchenStreamService.ITEM_CANCELLED, inKitchen(saved.getItems()));
+        orderJournal.appendAfterCommit(List.of(orderEvent(JournalEvent.Type.ORDER_PAID, saved)
+                .amount(saved.getTotalAmount())
+                .text(saved.getPaymentMethod())
+                .build()));
         
         DiningTable table = order.getDiningTable();
-        table.setStatus(TableStatus.AVAILABLE);
-        diningTableRepository.save(table);
-        
-        return OrderMapper.toResponse(saved);
+        changeTableStatus(table, TableStatus.AVAILABLE);
+        tableBoard.update(table, null);
+
+        // Ghi bảng tổng hợp sau cùng: khóa dòng tổng hợp chỉ giữ từ đây đến commit
+        salesRollupService.recordPayment(saved);
+        return toResponse(saved);
     }
 
     // Chuyển bàn
     @Transactional
+    @RetryOnConflict
     public OrderResponse moveOrder(MoveTableRequest request) {
         Order sourceOrder = orderRepository.findByDiningTableIdAndPaidAtIsNull(request.getSourceTableId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order đang mở cho bàn nguồn", request.getSourceTableId()));
         
-        DiningTable targetTable = findTableOrThrow(request.getTargetTableId());
+        DiningTable targetTable = findTableForUpdateOrThrow(request.getTargetTableId());
         
         if (orderRepository.findByDiningTableIdAndPaidAtIsNull(request.getTargetTableId()).isPresent()) {
             throw new IllegalStateException("Bàn đích đang có order, vui lòng dùng chức năng Gộp bàn.");
@@ -169,19 +258,25 @@ public class OrderService {
         // Cập nhật order
         sourceOrder.setDiningTable(targetTable);
         Order saved = orderRepository.save(sourceOrder);
+        orderJournal.appendAfterCommit(List.of(orderEvent(JournalEvent.Type.ORDER_MOVED, saved)
+                .relatedId(sourceTable.getId())
+                .build()));
 
         // Cập nhật trạng thái bàn
-        sourceTable.setStatus(TableStatus.AVAILABLE);
-        targetTable.setStatus(TableStatus.OCCUPIED);
-        diningTableRepository.save(sourceTable);
-        diningTableRepository.save(targetTable);
+        changeTableStatus(sourceTable, TableStatus.AVAILABLE);
+        changeTableStatus(targetTable, TableStatus.OCCUPIED);
+        tableBoard.update(sourceTable, null);
+        tableBoard.update(targetTable, saved);
 
-        return OrderMapper.toResponse(saved);
+        publishKitchen(KitchenStreamService.ITEM_UPDATED, inKitchen(saved.getItems()));
+        return toResponse(saved);
     }
 
     // Gộp bàn
     @Transactional
+    @RetryOnConflict
     public OrderResponse mergeOrders(MergeTableRequest request) {
+        // Order nguồn bị xóa (DELETE đã kiểm tra version) nên không cần khóa tăng version
         Order sourceOrder = orderRepository.findByDiningTableIdAndPaidAtIsNull(request.getSourceTableId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order đang mở cho bàn nguồn", request.getSourceTableId()));
         
@@ -196,8 +291,12 @@ public class OrderService {
         }
         
         targetOrder.getItems().addAll(items);
-        targetOrder.setTotalAmount(calculateTotalAmount(targetOrder.getItems()));
+        publishKitchen(KitchenStreamService.ITEM_UPDATED, inKitchen(items));
+        addToTotal(targetOrder, calculateTotalAmount(items));
         Order saved = orderRepository.save(targetOrder);
+        List<JournalEvent> events = new ArrayList<>(movedEvents(items, sourceOrder));
+        events.add(orderEvent(JournalEvent.Type.ORDER_CLOSED, sourceOrder).relatedId(targetOrder.getId()).build());
+        orderJournal.appendAfterCommit(events);
 
         // Xóa order nguồn cũ (đã hết món)
         DiningTable sourceTable = sourceOrder.getDiningTable();
@@ -205,17 +304,19 @@ public class OrderService {
         orderRepository.delete(sourceOrder);
 
         // Cập nhật trạng thái bàn nguồn
-        sourceTable.setStatus(TableStatus.AVAILABLE);
-        diningTableRepository.save(sourceTable);
+        changeTableStatus(sourceTable, TableStatus.AVAILABLE);
+        tableBoard.update(sourceTable, null);
+        tableBoard.update(saved.getDiningTable(), saved);
 
-        return OrderMapper.toResponse(saved);
+        return toResponse(saved);
     }
 
     // Tách hóa đơn (Tách món sang bàn khác)
     @Transactional
+    @RetryOnConflict
     public OrderResponse splitOrder(Long sourceOrderId, SplitOrderRequest request) {
         Order sourceOrder = findOpenOrderOrThrow(sourceOrderId);
-        DiningTable targetTable = findTableOrThrow(request.getTargetTableId());
+        DiningTable targetTable = findTableForUpdateOrThrow(request.getTargetTableId());
 
         // Tìm hoặc tạo order cho bàn đích
         Order targetOrder = orderRepository.findByDiningTableIdAndPaidAtIsNull(request.getTargetTableId())
@@ -226,9 +327,11 @@ public class OrderService {
                             .note("Tách từ " + sourceOrder.getDiningTable().getName())
                             .totalAmount(0L)
                             .build();
-                    targetTable.setStatus(TableStatus.OCCUPIED);
-                    diningTableRepository.save(targetTable);
-                    return orderRepository.save(newOrder);
+                    changeTableStatus(targetTable, TableStatus.OCCUPIED);
+                    Order created = orderRepository.save(newOrder);
+                    orderJournal.appendAfterCommit(List.of(
+                            orderEvent(JournalEvent.Type.ORDER_OPENED, created).relatedId(sourceOrderId).build()));
+                    return created;
                 });
 
         // Di chuyển các item được chỉ định
@@ -247,47 +350,172 @@ public class OrderService {
             targetOrder.getItems().add(item);
         }
 
-        // Cập nhật lại tổng tiền cả 2 order
-        sourceOrder.setTotalAmount(calculateTotalAmount(sourceOrder.getItems()));
-        targetOrder.setTotalAmount(calculateTotalAmount(targetOrder.getItems()));
+        publishKitchen(KitchenStreamService.ITEM_UPDATED, inKitchen(itemsToMove));
+        orderJournal.appendAfterCommit(movedEvents(itemsToMove, sourceOrder));
+
+        // Chuyển phần tiền của các món đã tách từ order nguồn sang order đích
+        long moved = calculateTotalAmount(itemsToMove);
+        addToTotal(sourceOrder, -moved);
+        addToTotal(targetOrder, moved);
 
         orderRepository.save(sourceOrder);
-        return OrderMapper.toResponse(orderRepository.save(targetOrder));
+        tableBoard.update(sourceOrder.getDiningTable(), sourceOrder);
+        tableBoard.update(targetTable, targetOrder);
+        return toResponse(orderRepository.save(targetOrder));
     }
 
     // Quản lý bếp: Lấy danh sách món đang chờ có phân trang
     public Page<KitchenItemResponse> getPendingKitchenItems(Pageable pageable) {
-        return orderItemRepository.findPendingItemsPage(OrderItemStatus.PENDING, pageable).map(item -> KitchenItemResponse.builder()
-                .id(item.getId())
-                .orderId(item.getOrder().getId())
-                .tableId(item.getOrder().getDiningTable().getId())
-                .tableName(item.getOrder().getDiningTable().getName())
-                .menuItemName(item.getMenuItem().getName())
-                .quantity(item.getQuantity())
-                .note(item.getNote())
-                .orderedAt(item.getOrderedAt())
-                .status(item.getStatus().name())
-                .build());
+        return orderItemRepository.findPendingItemsPage(OrderItemStatus.PENDING, pageable).map(this::toKitchenItem);
+    }
+
+    // Quản lý bếp: toàn bộ món bếp còn phải lo — chờ làm và đang làm (snapshot đầu tiên của kênh SSE)
+    public List<KitchenItemResponse> getKitchenQueue() {
+        return orderItemRepository.findKitchenItems(KITCHEN_STATUSES).stream()
+                .map(this::toKitchenItem)
+                .toList();
+    }
+
+    // Quản lý bếp: kênh SSE — snapshot rồi tới các sự kiện item-added/updated/served/cancelled
+    public SseEmitter streamKitchen() {
+        return kitchenStreamService.subscribe(this::getKitchenQueue);
     }
 
     // Đánh dấu món đã phục vụ
     @Transactional
+    @RetryOnConflict
     public OrderResponse markItemServed(Long orderId, Long itemId) {
         Order order = findOpenOrderOrThrow(orderId);
         OrderItem item = findItemInOrder(order, itemId);
+        // Cùng luật với transitionItems: món đã hủy không được "phục vụ" lại (tổng tiền đã trừ món này)
+        if (!OrderItemStatus.SERVED.allowedSources().contains(item.getStatus())) {
+            throw new IllegalStateException("Không thể chuyển món từ " + item.getStatus() + " sang " + OrderItemStatus.SERVED);
+        }
         item.setStatus(OrderItemStatus.SERVED);
-        return OrderMapper.toResponse(orderRepository.save(order));
+        forceVersionIncrement(order);
+        orderJournal.appendAfterCommit(List.of(itemEvent(JournalEvent.Type.ITEM_STATUS, item).build()));
+        publishKitchen(KitchenStreamService.ITEM_SERVED, List.of(item));
+        tableBoard.update(order.getDiningTable(), order);
+        return toResponse(orderRepository.save(order));
+    }
+
+    // Quản lý bếp: chuyển trạng thái nhiều món cùng lúc bằng 1 câu UPDATE, trả về từng món đã đổi / bị từ chối
+    @Transactional
+    @RetryOnConflict
+    public ItemStatusTransitionResponse transitionItems(ItemStatusTransitionRequest request) {
+        OrderItemStatus target = request.getStatus();
+        Set<OrderItemStatus> from = target.allowedSources();
+        if (from.isEmpty()) {
+            throw new IllegalArgumentException("Không thể chuyển món về trạng thái " + target);
+        }
+        List<Long> ids = request.getOrderItemIds().stream().distinct().toList();
+        Map<Long, OrderItem> found = orderItemRepository.findWithOrderByIdIn(ids).stream()
+                .collect(Collectors.toMap(OrderItem::getId, Function.identity()));
+
+        List<OrderItem> accepted = new ArrayList<>();
+        List<RejectedItemResponse> rejected = new ArrayList<>();
+        for (Long id : ids) {
+            OrderItem item = found.get(id);
+            if (item == null) {
+                rejected.add(rejectItem(id, null, "NOT_FOUND", "Không tìm thấy món"));
+            } else if (item.getOrder().getPaidAt() != null) {
+                rejected.add(rejectItem(id, item.getStatus(), "ORDER_CLOSED", "Order đã thanh toán"));
+            } else if (!from.contains(item.getStatus())) {
+                rejected.add(rejectItem(id, item.getStatus(), "INVALID_TRANSITION",
+                        "Không thể chuyển từ " + item.getStatus() + " sang " + target));
+            } else {
+                accepted.add(item);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Long> acceptedIds = accepted.stream().map(OrderItem::getId).toList();
+            if (orderItemRepository.updateStatus(acceptedIds, from, target) != accepted.size()) {
+                // Có dòng vừa bị đổi sau khi đọc → rollback, @RetryOnConflict chạy lại với dữ liệu mới
+                throw new ConcurrencyFailureException("Trạng thái món đã thay đổi trong lúc cập nhật");
+            }
+            Map<Order, List<OrderItem>> byOrder = accepted.stream()
+                    .collect(Collectors.groupingBy(OrderItem::getOrder));
+            if (target == OrderItemStatus.CANCELLED) {
+                // Trừ tổng tiền trên entity: flush ghi total_amount + version trong 1 câu UPDATE có kiểm tra version
+                byOrder.forEach((order, items) -> {
+                    long delta = -calculateTotalAmount(items);
+                    tableBoard.adjust(order.getDiningTable().getId(), order.getId(), order.getVersion() + 1, delta,
+                            -items.stream().mapToInt(OrderItem::getQuantity).sum());
+                    addToTotal(order, delta);
+                });
+            } else {
+                for (Order order : byOrder.keySet()) {
+                    if (orderRepository.incrementVersion(order.getId(), order.getVersion()) != 1) {
+                        throw new ConcurrencyFailureException("Order đã thay đổi trong lúc cập nhật trạng thái món");
+                    }
+                }
+            }
+            orderJournal.appendAfterCommit(accepted.stream()
+                    .map(i -> itemEvent(JournalEvent.Type.ITEM_STATUS, i).text(target.name()).build())
+                    .toList());
+            publishKitchen(target == OrderItemStatus.SERVING ? KitchenStreamService.ITEM_UPDATED
+                            : target == OrderItemStatus.SERVED ? KitchenStreamService.ITEM_SERVED
+                            : KitchenStreamService.ITEM_CANCELLED,
+                    inKitchen(accepted), target);
+        }
+
+        return ItemStatusTransitionResponse.builder()
+                .status(target.name())
+                .changed(accepted.stream().map(i -> toKitchenItem(i, target)).toList())
+                .rejected(rejected)
+                .build();
     }
 
     // ─── Private helpers ─────────────────────────────────────────────────────
 
-    private Order findOrderOrThrow(Long id) {
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", id));
+    // Sự kiện journal của order — orderId + bàn hiện tại; các trường khác điền tùy loại
+    private static JournalEvent.JournalEventBuilder orderEvent(JournalEvent.Type type, Order order) {
+        return JournalEvent.builder()
+                .type(type)
+                .timestamp(System.currentTimeMillis())
+                .orderId(order.getId())
+                .tableId(order.getDiningTable().getId());
+    }
+
+    // Sự kiện journal của 1 dòng món: số lượng, đơn giá (amount) và trạng thái (text) tại thời điểm ghi
+    private static JournalEvent.JournalEventBuilder itemEvent(JournalEvent.Type type, OrderItem item) {
+        return orderEvent(type, item.getOrder())
+                .itemId(item.getId())
+                .menuItemId(item.getMenuItem().getId())
+                .quantity(item.getQuantity())
+                .amount(item.getPriceAtOrder())
+                .text(item.getStatus().name());
+    }
+
+    // Các dòng đã được gán sang order đích (gộp/tách); relatedId = order nguồn
+    private static List<JournalEvent> movedEvents(List<OrderItem> items, Order sourceOrder) {
+        return items.stream()
+                .map(i -> itemEvent(JournalEvent.Type.ITEM_MOVED, i).relatedId(sourceOrder.getId()).build())
+                .toList();
+    }
+
+    private static RejectedItemResponse rejectItem(Long id, OrderItemStatus current, String reason, String message) {
+        return RejectedItemResponse.builder()
+                .id(id)
+                .currentStatus(current != null ? current.name() : null)
+                .reason(reason)
+                .message(message)
+                .build();
+    }
+
+    // Đổi trạng thái bàn → danh sách bàn đổi phiên bản (ETag của /api/dining-tables)
+    private void changeTableStatus(DiningTable table, TableStatus status) {
+        table.setStatus(status);
+        diningTableRepository.save(table);
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
     }
 
+    // Order sắp bị sửa: version tăng khi commit (qua addToTotal / forceVersionIncrement),
+    // nên 2 thao tác đồng thời trên cùng order vẫn bị phát hiện xung đột và thử lại
     private Order findOpenOrderOrThrow(Long orderId) {
-        Order order = findOrderOrThrow(orderId);
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", orderId));
         if (order.getPaidAt() != null) {
             throw new IllegalStateException("Order id " + orderId + " đã được thanh toán, không thể chỉnh sửa.");
         }
@@ -299,9 +527,30 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("DiningTable", tableId));
     }
 
-    private MenuItem findMenuItemOrThrow(Long menuItemId) {
-        return menuItemRepository.findById(menuItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("MenuItem", menuItemId));
+    // Dùng khi sắp mở order trên bàn: version của bàn luôn tăng khi commit
+    private DiningTable findTableForUpdateOrThrow(Long tableId) {
+        return diningTableRepository.findForUpdateById(tableId)
+                .orElseThrow(() -> new ResourceNotFoundException("DiningTable", tableId));
+    }
+
+    // Tra giá/tên món từ MenuCatalog, chỉ lấy reference (không SELECT) cho khóa ngoại menu_item_id
+    private Map<Long, MenuItemResponse> findMenuItemsOrThrow(List<OrderItemRequest> requests) {
+        Map<Long, MenuItemResponse> menuItems = new HashMap<>();
+        for (OrderItemRequest req : requests) {
+            menuItems.computeIfAbsent(req.getMenuItemId(), id -> menuCatalog.findMenuItem(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("MenuItem", id)));
+        }
+        return menuItems;
+    }
+
+    // Tạo và lưu các dòng món theo lô — INSERT được Hibernate gom thành JDBC batch khi flush
+    private List<OrderItem> buildOrderItems(Order order, List<OrderItemRequest> requests) {
+        Map<Long, MenuItemResponse> menuItems = findMenuItemsOrThrow(requests);
+        List<OrderItem> orderItems = requests.stream()
+                .map(req -> buildOrderItem(order, menuItems.get(req.getMenuItemId()), req))
+                .toList();
+        // Lưu orderItem trước để tránh lỗi TransientObjectException
+        return orderItemRepository.saveAll(orderItems);
     }
 
     private OrderItem findItemInOrder(Order order, Long itemId) {
@@ -311,10 +560,10 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("OrderItem", itemId));
     }
 
-    private OrderItem buildOrderItem(Order order, MenuItem menuItem, OrderItemRequest req) {
+    private OrderItem buildOrderItem(Order order, MenuItemResponse menuItem, OrderItemRequest req) {
         return OrderItem.builder()
                 .order(order)
-                .menuItem(menuItem)
+                .menuItem(menuItemRepository.getReferenceById(menuItem.getId()))
                 .quantity(req.getQuantity() != null ? req.getQuantity() : 1)
                 .note(req.getNote() != null ? req.getNote() : "")
                 .priceAtOrder(menuItem.getPrice())
@@ -323,10 +572,78 @@ public class OrderService {
                 .build();
     }
 
-    private long calculateTotalAmount(List<OrderItem> items) {
+    private KitchenItemResponse toKitchenItem(OrderItem item) {
+        return toKitchenItem(item, item.getStatus());
+    }
+
+    // status tách riêng: UPDATE hàng loạt không chạm vào entity đã nạp
+    private KitchenItemResponse toKitchenItem(OrderItem item, OrderItemStatus status) {
+        return KitchenItemResponse.builder()
+                .id(item.getId())
+                .orderId(item.getOrder().getId())
+                .tableId(item.getOrder().getDiningTable().getId())
+                .tableName(item.getOrder().getDiningTable().getName())
+                .menuItemName(menuCatalog.getMenuItemName(item.getMenuItem()))
+                .quantity(item.getQuantity())
+                .note(item.getNote())
+                .orderedAt(item.getOrderedAt())
+                .status(status.name())
+                .build();
+    }
+
+    // Chỉ các món có trong snapshot của kênh bếp (PENDING, SERVING) mới sinh sự kiện
+    private List<OrderItem> inKitchen(List<OrderItem> items) {
+        return items.stream()
+                .filter(i -> KITCHEN_STATUSES.contains(i.getStatus()))
+                .toList();
+    }
+
+    // Dựng payload ngay trong transaction, chỉ đẩy cho màn hình bếp sau khi commit
+    private void publishKitchen(String event, List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<KitchenItemResponse> payload = items.stream().map(this::toKitchenItem).toList();
+        TransactionUtils.afterCommit(() -> kitchenStreamService.publishAll(event, payload));
+    }
+
+    private void publishKitchen(String event, List<OrderItem> items, OrderItemStatus status) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<KitchenItemResponse> payload = items.stream().map(i -> toKitchenItem(i, status)).toList();
+        TransactionUtils.afterCommit(() -> kitchenStreamService.publishAll(event, payload));
+    }
+
+    private OrderResponse toResponse(Order order) {
+        return OrderMapper.toResponse(order, menuCatalog);
+    }
+
+    // Cộng chênh lệch vào tổng tiền trên entity (không duyệt lại toàn bộ món): lúc flush total_amount và version
+    // đi chung 1 câu UPDATE có kiểm tra @Version. Chênh lệch 0 thì entity không đổi → ép tăng version
+    private void addToTotal(Order order, long delta) {
+        if (delta == 0) {
+            forceVersionIncrement(order);
+            return;
+        }
+        order.setTotalAmount(order.getTotalAmount() + delta);
+    }
+
+    // Chỉ dòng món đổi (ghi chú, phục vụ món): order_items không có version riêng, nên tăng version order để
+    // giao dịch đang giữ bản cũ (vd. transitionItems hủy món) bị từ chối thay vì ghi đè trạng thái món
+    private void forceVersionIncrement(Order order) {
+        entityManager.lock(order, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    // Thành tiền 1 dòng; món hủy không tính
+    static long lineTotal(OrderItem item) {
+        return item.getStatus() == OrderItemStatus.CANCELLED ? 0 : item.getPriceAtOrder() * item.getQuantity();
+    }
+
+    // Tổng tiền của một nhóm dòng (dòng mới thêm, dòng được chuyển) — package-private để module benchmarks đo trực tiếp
+    static long calculateTotalAmount(List<OrderItem> items) {
         return items.stream()
-                .filter(i -> i.getStatus() != OrderItemStatus.CANCELLED)
-                .mapToLong(i -> i.getPriceAtOrder() * i.getQuantity())
+                .mapToLong(OrderService::lineTotal)
                 .sum();
     }
 }
@@ -0,0 +1,53 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.dto.response.TotalDriftResponse;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.util.DataSourceRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Đối soát định kỳ: tổng tiền cộng dồn (delta) của order so với tính lại toàn bộ từ các dòng món.
+// Chỉ báo cáo (log + gauge quannuoc.orders.total_drift), không tự sửa.
+@Service
+public class OrderTotalAuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalAuditService.class);
+
+    private final OrderRepository orderRepository;
+    private final int paidLookbackHours;
+
+    private volatile int lastDriftCount;
+
+    public OrderTotalAuditService(OrderRepository orderRepository,
+                                  @Value("${app.order-totals.audit.paid-lookback-hours:24}") int paidLookbackHours) {
+        this.orderRepository = orderRepository;
+        this.paidLookbackHours = paidLookbackHours;
+    }
+
+    // Order đang mở + order thanh toán trong paid-lookback-hours giờ gần nhất (order cũ hơn không còn bị sửa).
+    // Đọc ở primary: replica trễ sẽ báo lệch giả (hoặc bỏ sót) với các order vừa sửa
+    @Scheduled(initialDelayString = "${app.order-totals.audit.interval-ms:3600000}",
+               fixedDelayString = "${app.order-totals.audit.interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    @DataSourceRoute(DataSourceRoute.Target.PRIMARY)
+    public List<TotalDriftResponse> audit() {
+        List<TotalDriftResponse> drift = orderRepository.findTotalDrift(
+                LocalDateTime.now().minusHours(paidLookbackHours), OrderItemStatus.CANCELLED);
+        lastDriftCount = drift.size();
+        drift.forEach(d -> log.warn("Tổng tiền order {} bị lệch: lưu {} nhưng tính lại {}",
+                d.getOrderId(), d.getStoredTotal(), d.getRecomputedTotal()));
+        return drift;
+    }
+
+    public int getLastDriftCount() {
+        return lastDriftCount;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.quannuoc.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.entity.DailySalesRollup;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.repository.DailyItemSalesRollupRepository;
+import org.example.quannuoc.repository.DailySalesRollupRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final DailyItemSalesRollupRepository dailyItemSalesRollupRepository;
+    private final OrderRepository orderRepository;
+
+    // Cộng order vừa thanh toán vào bảng tổng hợp — chạy chung transaction với payOrder, gọi cuối cùng
+    // để giữ khóa dòng tổng hợp ngắn nhất. Slot theo id order: các thanh toán đồng thời rải ra nhiều dòng.
+    // UPDATE trước, chỉ INSERT khi dòng chưa có (thanh toán đầu tiên của ngày/món/slot). Trên PostgreSQL,
+    // INSERT ... ON CONFLICT DO NOTHING vào dòng đã có vẫn dò unique index rồi bỏ, tốn thêm 1 câu lệnh mỗi dòng
+    // tổng hợp mỗi lần thanh toán — và phải chờ nếu transaction khác vừa chèn cùng khóa mà chưa commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Order order) {
+        LocalDate date = order.getPaidAt().toLocalDate();
+        int slot = (int) Math.floorMod(order.getId(), (long) DailySalesRollup.SLOTS);
+
+        if (dailySalesRollupRepository.addSales(date, slot, order.getTotalAmount(), 1) == 0) {
+            dailySalesRollupRepository.insertIfAbsent(date, slot);
+            dailySalesRollupRepository.addSales(date, slot, order.getTotalAmount(), 1);
+        }
+
+        // Gom các dòng cùng món trong order (món hủy không tính doanh thu)
+        Map<Long, long[]> perItem = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getStatus() == OrderItemStatus.CANCELLED) {
+                continue;
+            }
+            long[] sums = perItem.computeIfAbsent(item.getMenuItem().getId(), id -> new long[2]);
+            sums[0] += item.getQuantity();
+            sums[1] += item.getPriceAtOrder() * item.getQuantity();
+        }
+        perItem.forEach((menuItemId, sums) -> {
+            if (dailyItemSalesRollupRepository.addSales(date, menuItemId, slot, sums[0], sums[1]) == 0) {
+                dailyItemSalesRollupRepository.insertIfAbsent(date, menuItemId, slot);
+                dailyItemSalesRollupRepository.addSales(date, menuItemId, slot, sums[0], sums[1]);
+            }
+        });
+    }
+
+    // Xóa và dựng lại bảng tổng hợp từ lịch sử order đã thanh toán còn trong orders.
+    // Đảm bảo: mọi ngày từ ngày thanh toán sớm nhất còn trong orders trở đi được tính lại đúng theo orders;
+    // các ngày trước đó (tháng đã tách sang schema archive, mode DETACH) giữ nguyên số liệu đang có —
+    // rebuild không đọc schema archive nên không sửa được các ngày này. Tách theo tháng thanh toán nên
+    // 1 ngày không bao giờ nửa nằm trong orders, nửa nằm trong archive
+    @Transactional
+    public void rebuild() {
+        LocalDateTime oldest = orderRepository.findOldestPaidAt();
+        if (oldest == null) {
+            log.info("Không có order đã thanh toán, giữ nguyên bảng tổng hợp doanh thu");
+            return;
+        }
+        dailyItemSalesRollupRepository.deleteFrom(oldest.toLocalDate());
+        dailySalesRollupRepository.deleteFrom(oldest.toLocalDate());
+        int days = dailySalesRollupRepository.rebuildFromOrders();
+        int rows = dailyItemSalesRollupRepository.rebuildFromOrders();
+        log.info("Đã dựng lại bảng tổng hợp doanh thu: {} ngày, {} dòng theo món", days, rows);
+    }
+}
@@ -1,33 +1,45 @@
 package org.example.quannuoc.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.request.ChartBucket;
+import org.example.quannuoc.dto.request.SalesWindow;
+import org.example.quannuoc.dto.response.BestSellerResponse;
+import org.example.quannuoc.dto.response.DailyRevenueResponse;
+import org.example.quannuoc.dto.response.MenuItemResponse;
 import org.example.quannuoc.dto.response.RevenueChartResponse;
 import org.example.quannuoc.dto.response.StatsResponse;
 import org.example.quannuoc.dto.response.TopItemResponse;
-import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.repository.DailyItemSalesRollupRepository;
+import org.example.quannuoc.repository.DailySalesRollupRepository;
+import org.example.quannuoc.util.DataSourceRoute;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class StatsService {
 
-    private final OrderRepository orderRepository;
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final DailyItemSalesRollupRepository dailyItemSalesRollupRepository;
+    private final BestSellerTracker bestSellerTracker;
+    private final MenuCatalog menuCatalog;
 
+    // Các số liệu đọc từ bảng tổng hợp theo ngày — chi phí không phụ thuộc độ dài lịch sử order
+    @Transactional(readOnly = true)
     public StatsResponse getTodayStats() {
-        LocalDateTime start = LocalDateTime.now().with(LocalTime.MIN);
-        LocalDateTime end = LocalDateTime.now().with(LocalTime.MAX);
+        LocalDate date = LocalDate.now();
+        DailyRevenueResponse today = dailySalesRollupRepository.findRevenueBetween(date, date).stream()
+                .findFirst()
+                .orElseGet(() -> new DailyRevenueResponse(date, 0, 0));
 
-        Long revenue = orderRepository.sumRevenueBetween(start, end);
-        Long orders = orderRepository.countOrdersBetween(start, end);
-
-        long rev = revenue != null ? revenue : 0;
-        long ord = orders != null ? orders : 0;
+        long rev = today.getRevenue();
+        long ord = today.getOrders();
         long avg = ord > 0 ? rev / ord : 0;
 
         return StatsResponse.builder()
@@ -37,29 +49,62 @@ public class StatsService {
                 .build();
     }
 
+    // Thống kê nhiều ngày: replica trễ vài chục giây không ảnh hưởng kết quả
+    @Transactional(readOnly = true)
+    @DataSourceRoute(maxLagMs = 60_000)
     public List<TopItemResponse> getTopItems(int days) {
-        LocalDateTime start = LocalDateTime.now().minusDays(days).with(LocalTime.MIN);
-        LocalDateTime end = LocalDateTime.now().with(LocalTime.MAX);
-        return orderRepository.findTopSellingItems(start, end);
+        LocalDate today = LocalDate.now();
+        return dailyItemSalesRollupRepository.findTopSellingItems(today.minusDays(days), today);
+    }
+
+    // Món bán chạy theo cửa sổ trượt, đọc từ sketch trong bộ nhớ (không truy vấn DB); tên món lấy từ catalog
+    public List<BestSellerResponse> getBestSellers(SalesWindow window, int limit) {
+        if (limit < 1 || limit > 50) {
+            throw new IllegalArgumentException("Số món phải từ 1 đến 50");
+        }
+        return bestSellerTracker.top(window, limit).stream()
+                .map(e -> BestSellerResponse.builder()
+                        .menuItemId(e.key())
+                        .name(menuCatalog.findMenuItem(e.key()).map(MenuItemResponse::getName).orElse(null))
+                        .quantity(e.count())
+                        .revenue(e.revenue())
+                        .maxError(e.error())
+                        .build())
+                .toList();
     }
 
+    @Transactional(readOnly = true)
+    @DataSourceRoute(maxLagMs = 60_000)
     public List<RevenueChartResponse> getRevenueChart(int days) {
-        List<RevenueChartResponse> chart = new ArrayList<>();
+        return getRevenueChart(days, ChartBucket.DAY);
+    }
+
+    // Biểu đồ doanh thu: 1 truy vấn bảng tổng hợp theo ngày, sau đó cộng dồn vào bucket ngày/tuần/tháng
+    // và điền 0 cho các bucket không có đơn
+    @Transactional(readOnly = true)
+    @DataSourceRoute(maxLagMs = 60_000)
+    public List<RevenueChartResponse> getRevenueChart(int days, ChartBucket bucket) {
         LocalDate today = LocalDate.now();
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            LocalDateTime start = date.atStartOfDay();
-            LocalDateTime end = date.atTime(LocalTime.MAX);
-            
-            Long rev = orderRepository.sumRevenueBetween(start, end);
-            Long ord = orderRepository.countOrdersBetween(start, end);
-            
-            chart.add(RevenueChartResponse.builder()
-                    .date(date.toString())
-                    .revenue(rev != null ? rev : 0)
-                    .orders(ord != null ? ord : 0)
-                    .build());
+        LocalDate from = bucket.startOf(today.minusDays(Math.max(days, 1) - 1L));
+
+        Map<LocalDate, long[]> totals = new TreeMap<>();
+        for (LocalDate d = from; !d.isAfter(today); d = bucket.next(d)) {
+            totals.put(d, new long[2]);
         }
+        for (DailyRevenueResponse row : dailySalesRollupRepository.findRevenueBetween(from, today)) {
+            long[] total = totals.get(bucket.startOf(row.getDate()));
+            if (total != null) {
+                total[0] += row.getRevenue();
+                total[1] += row.getOrders();
+            }
+        }
+
+        List<RevenueChartResponse> chart = new ArrayList<>(totals.size());
+        totals.forEach((date, total) -> chart.add(RevenueChartResponse.builder()
+                .date(date.toString())
+                .revenue(total[0])
+                .orders(total[1])
+                .build()));
         return chart;
     }
 }
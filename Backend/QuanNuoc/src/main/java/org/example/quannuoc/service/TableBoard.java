@@ -0,0 +1,211 @@
+package org.example.quannuoc.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.response.TableBoardResponse;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.entity.TableStatus;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.util.DataSourceRoute;
+import org.example.quannuoc.util.SearchIndex;
+import org.example.quannuoc.util.TransactionUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sơ đồ bàn trong bộ nhớ: trạng thái + order đang mở của từng bàn, kèm chỉ mục tên bàn để tìm kiếm.
+// OrderService / DiningTableService cập nhật sau khi commit; dựng lại từ DB lúc khởi động
+// và định kỳ (app.table-board.resync-ms) để tự sửa nếu bộ nhớ lệch với DB.
+// Mỗi entry mang version bàn (cho phần thông tin bàn) và version order (cho phần order): cập nhật đến lệch
+// thứ tự hoặc snapshot DB đọc trước một commit đều cũ hơn entry hiện có nên bị bỏ qua thay vì ghi đè.
+@Component
+@RequiredArgsConstructor
+public class TableBoard {
+
+    // orderVersion của entry bàn trống
+    private static final long NO_ORDER = -1;
+
+    private final DiningTableRepository diningTableRepository;
+    private final OrderRepository orderRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Bàn đã xóa: snapshot hoặc cập nhật đến muộn không được đưa bàn trở lại
+    private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+    private volatile SearchIndex<Long> nameIndex = SearchIndex.empty();
+
+    // Chỉ dựng lại chỉ mục tên khi tên bàn đổi; khóa để 2 lần dựng không ghi đè lệch thứ tự
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    public List<TableBoardResponse> getAll() {
+        return entries.values().stream()
+                .map(Entry::view)
+                .sorted(Comparator.comparing(TableBoardResponse::getTableId))
+                .toList();
+    }
+
+    public long countOpenOrders() {
+        return entries.values().stream().filter(e -> e.view().getOrderId() != null).count();
+    }
+
+    public long countOccupied() {
+        return entries.values().stream()
+                .filter(e -> TableStatus.OCCUPIED.name().equals(e.view().getStatus()))
+                .count();
+    }
+
+    // Id bàn có tên khớp keyword (không phân biệt dấu), theo thứ tự xếp hạng
+    public List<Long> searchTableIds(String keyword) {
+        return nameIndex.search(keyword);
+    }
+
+    // Bàn + order đọc trong 1 transaction ở primary rồi ghép vào map đang dùng (không thay cả map):
+    // cập nhật commit trong lúc đang đọc có version mới hơn snapshot nên được giữ lại
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.table-board.resync-ms:300000}",
+               fixedDelayString = "${app.table-board.resync-ms:300000}")
+    @Transactional(readOnly = true)
+    @DataSourceRoute(DataSourceRoute.Target.PRIMARY)
+    public void rebuild() {
+        Map<Long, Entry> loaded = new HashMap<>();
+        diningTableRepository.findAll().forEach(t -> loaded.put(t.getId(), entry(t, null)));
+        orderRepository.findWithItemsByPaidAtIsNull().forEach(o -> {
+            DiningTable table = o.getDiningTable();
+            loaded.put(table.getId(), entry(table, o));
+        });
+        loaded.forEach(this::apply);
+        reindex();
+    }
+
+    // Bàn + order đang mở (null nếu bàn trống) — dựng ngay trong transaction; version đọc sau commit
+    // vì version tăng lúc flush/commit (@Version)
+    public void update(DiningTable table, Order openOrder) {
+        TableBoardResponse view = toView(table, openOrder);
+        TransactionUtils.afterCommit(() -> {
+            Entry previous = entries.get(view.getTableId());
+            apply(view.getTableId(), new Entry(view, table.getVersion(),
+                    openOrder != null ? openOrder.getVersion() : NO_ORDER));
+            if (previous == null || !previous.view().getTableName().equals(view.getTableName())) {
+                reindex();
+            }
+        });
+    }
+
+    // Chỉ thông tin bàn thay đổi (tên, số ghế, trạng thái) — giữ nguyên phần order
+    public void updateTable(DiningTable table) {
+        TableBoardResponse tableOnly = toView(table, null);
+        TransactionUtils.afterCommit(() -> {
+            if (removed.contains(tableOnly.getTableId())) {
+                return;
+            }
+            long tableVersion = table.getVersion();
+            entries.merge(tableOnly.getTableId(), new Entry(tableOnly, tableVersion, NO_ORDER),
+                    (current, changed) -> tableVersion < current.tableVersion()
+                            ? current
+                            : new Entry(withTable(current.view(), tableOnly), tableVersion, current.orderVersion()));
+            reindex();
+        });
+    }
+
+    // Cộng dồn tổng tiền / số món của order đang mở (vd. hủy món hàng loạt) mà không cần nạp lại order.
+    // orderVersion là version order sau commit: bỏ qua nếu entry đã phản ánh version đó (vd. snapshot mới hơn)
+    public void adjust(Long tableId, Long orderId, long orderVersion, long amountDelta, int itemDelta) {
+        TransactionUtils.afterCommit(() -> entries.computeIfPresent(tableId, (id, e) ->
+                !orderId.equals(e.view().getOrderId()) || e.orderVersion() >= orderVersion
+                        ? e
+                        : new Entry(e.view().toBuilder()
+                                .totalAmount(e.view().getTotalAmount() + amountDelta)
+                                .itemCount(e.view().getItemCount() + itemDelta)
+                                .build(), e.tableVersion(), orderVersion)));
+    }
+
+    public void remove(Long tableId) {
+        TransactionUtils.afterCommit(() -> {
+            removed.add(tableId);
+            entries.remove(tableId);
+            reindex();
+        });
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    private void apply(Long tableId, Entry incoming) {
+        if (!removed.contains(tableId)) {
+            entries.merge(tableId, incoming, TableBoard::newer);
+        }
+    }
+
+    // Ghép 2 phần độc lập. Thông tin bàn: version bàn cao hơn thắng. Phần order: cùng order thì version order
+    // cao hơn thắng; khác order thì theo version bàn (mở/thanh toán/chuyển bàn luôn làm version bàn tăng).
+    // Bằng nhau → lấy incoming (cùng trạng thái đã commit, snapshot DB sửa được lệch do cộng dồn)
+    private static Entry newer(Entry current, Entry incoming) {
+        boolean tableNewer = incoming.tableVersion() >= current.tableVersion();
+        boolean orderNewer = Objects.equals(incoming.view().getOrderId(), current.view().getOrderId())
+                ? incoming.orderVersion() >= current.orderVersion()
+                : tableNewer;
+        Entry order = orderNewer ? incoming : current;
+        Entry table = tableNewer ? incoming : current;
+        return new Entry(withTable(order.view(), table.view()),
+                Math.max(current.tableVersion(), incoming.tableVersion()),
+                order.orderVersion());
+    }
+
+    private static TableBoardResponse withTable(TableBoardResponse view, TableBoardResponse table) {
+        return view.toBuilder()
+                .tableName(table.getTableName())
+                .seats(table.getSeats())
+                .status(table.getStatus())
+                .build();
+    }
+
+    private void reindex() {
+        indexLock.lock();
+        try {
+            Map<Long, String> names = new TreeMap<>();
+            entries.values().forEach(e -> names.put(e.view().getTableId(), e.view().getTableName()));
+            nameIndex = SearchIndex.of(names);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private static Entry entry(DiningTable table, Order openOrder) {
+        return new Entry(toView(table, openOrder), table.getVersion(),
+                openOrder != null ? openOrder.getVersion() : NO_ORDER);
+    }
+
+    private static TableBoardResponse toView(DiningTable table, Order openOrder) {
+        TableBoardResponse.TableBoardResponseBuilder builder = TableBoardResponse.builder()
+                .tableId(table.getId())
+                .tableName(table.getName())
+                .seats(table.getSeats())
+                .status(table.getStatus().name());
+        if (openOrder != null) {
+            builder.orderId(openOrder.getId())
+                    .totalAmount(openOrder.getTotalAmount())
+                    .itemCount(openOrder.getItems().stream()
+                            .filter(i -> i.getStatus() != OrderItemStatus.CANCELLED)
+                            .mapToInt(OrderItem::getQuantity)
+                            .sum())
+                    .seatedSince(openOrder.getCreatedAt());
+        }
+        return builder.build();
+    }
+
+    private record Entry(TableBoardResponse view, long tableVersion, long orderVersion) {
+    }
+}
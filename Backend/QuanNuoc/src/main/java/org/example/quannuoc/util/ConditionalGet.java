@@ -0,0 +1,62 @@
+package org.example.quannuoc.util;
+
+import org.example.quannuoc.service.CatalogVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+public class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    // So If-None-Match (hoặc If-Modified-Since nếu không có) với stamp trước khi gọi body →
+    // khớp thì trả 304 rỗng, không truy vấn và không serialize gì
+    public static <T> ResponseEntity<T> respond(WebRequest request, CatalogVersions.Stamp stamp, Supplier<T> body) {
+        if (notModified(request, stamp)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(stamp.etag())
+                    .lastModified(stamp.lastModified())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(stamp.etag())
+                .lastModified(stamp.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    private static boolean notModified(WebRequest request, CatalogVersions.Stamp stamp) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(stamp.etag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return !stamp.lastModified().isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
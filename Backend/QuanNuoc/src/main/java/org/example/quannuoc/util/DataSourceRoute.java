@@ -0,0 +1,25 @@
+package org.example.quannuoc.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Chọn pool DB cho từng method service. Mặc định method service @Transactional(readOnly = true) đọc từ read pool
+// (replica), còn lại ghi/đọc ở primary — kể cả lời gọi repository ngoài service.
+// PRIMARY: ép dùng primary kể cả khi readOnly (cần đọc ngay dữ liệu vừa ghi);
+// READ + maxLagMs: chấp nhận replica trễ tới maxLagMs (ms) thay cho app.datasource.read.max-lag-ms.
+// Xử lý bởi DataSourceRouteAspect, bọc ngoài @Transactional.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DataSourceRoute {
+
+    enum Target {
+        PRIMARY, READ
+    }
+
+    Target value() default Target.READ;
+
+    // -1 = dùng app.datasource.read.max-lag-ms
+    long maxLagMs() default -1;
+}
@@ -0,0 +1,25 @@
+package org.example.quannuoc.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Vị trí (paidAt, id) của order cuối trang lịch sử, mã hóa base64url để client chỉ việc gửi lại nguyên chuỗi
+public record HistoryCursor(LocalDateTime paidAt, Long id) {
+
+    public String encode() {
+        String raw = paidAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+    }
+}
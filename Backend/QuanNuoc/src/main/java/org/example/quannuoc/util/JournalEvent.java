@@ -0,0 +1,117 @@
+package org.example.quannuoc.util;
+
+import lombok.Builder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.zip.CRC32C;
+
+// 1 thay đổi của order trong journal. Bố cục nhị phân (big-endian):
+//   [int length][int crc32c][byte type][long timestamp][long orderId][long tableId][long itemId]
+//   [long menuItemId][long relatedId][int quantity][long amount][short textLength][text UTF-8]
+// length = số byte sau 2 trường đầu; length 0 (vùng chưa ghi của segment) đánh dấu hết dữ liệu.
+// Ý nghĩa relatedId/text tùy loại: ORDER_MOVED → bàn cũ, ITEM_MOVED → order cũ,
+// ITEM_STATUS → text = trạng thái mới, ORDER_PAID → text = phương thức thanh toán, amount = tổng tiền.
+@Builder
+public record JournalEvent(Type type,
+                           long timestamp,
+                           long orderId,
+                           long tableId,
+                           long itemId,
+                           long menuItemId,
+                           long relatedId,
+                           int quantity,
+                           long amount,
+                           String text) {
+
+    public enum Type {
+        ORDER_OPENED, ITEM_ADDED, ITEM_UPDATED, ITEM_REMOVED, ITEM_STATUS,
+        ORDER_MOVED, ITEM_MOVED, ORDER_CLOSED, ORDER_PAID
+    }
+
+    public static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int FIXED_BODY_SIZE = 1 + Long.BYTES * 7 + Integer.BYTES + Short.BYTES;
+    private static final int MAX_TEXT_BYTES = Short.MAX_VALUE;
+
+    public LocalDate day(ZoneId zone) {
+        return Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+    }
+
+    public int encodedSize() {
+        return HEADER_SIZE + FIXED_BODY_SIZE + textBytes().length;
+    }
+
+    public void encode(ByteBuffer target) {
+        byte[] text = textBytes();
+        int bodyStart = target.position() + HEADER_SIZE;
+        target.putInt(FIXED_BODY_SIZE + text.length);
+        target.putInt(0); // crc điền sau khi ghi body
+        target.put((byte) type.ordinal())
+                .putLong(timestamp)
+                .putLong(orderId)
+                .putLong(tableId)
+                .putLong(itemId)
+                .putLong(menuItemId)
+                .putLong(relatedId)
+                .putInt(quantity)
+                .putLong(amount)
+                .putShort((short) text.length)
+                .put(text);
+        target.putInt(bodyStart - Integer.BYTES, crc(target, bodyStart, target.position() - bodyStart));
+    }
+
+    // null khi gặp vùng trống, bản ghi ghi dở (crash giữa chừng) hoặc hỏng — reader dừng tại đó
+    public static JournalEvent decode(ByteBuffer source) {
+        if (source.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int start = source.position();
+        int length = source.getInt(start);
+        if (length < FIXED_BODY_SIZE || length > source.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        int bodyStart = start + HEADER_SIZE;
+        if (source.getInt(start + Integer.BYTES) != crc(source, bodyStart, length)) {
+            return null;
+        }
+        source.position(bodyStart);
+        int typeOrdinal = source.get();
+        if (typeOrdinal < 0 || typeOrdinal >= Type.values().length) {
+            source.position(start);
+            return null;
+        }
+        JournalEventBuilder builder = JournalEvent.builder()
+                .type(Type.values()[typeOrdinal])
+                .timestamp(source.getLong())
+                .orderId(source.getLong())
+                .tableId(source.getLong())
+                .itemId(source.getLong())
+                .menuItemId(source.getLong())
+                .relatedId(source.getLong())
+                .quantity(source.getInt())
+                .amount(source.getLong());
+        byte[] text = new byte[source.getShort()];
+        source.get(text);
+        return builder.text(text.length > 0 ? new String(text, StandardCharsets.UTF_8) : null).build();
+    }
+
+    private byte[] textBytes() {
+        if (text == null || text.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Nội dung sự kiện journal quá dài");
+        }
+        return bytes;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
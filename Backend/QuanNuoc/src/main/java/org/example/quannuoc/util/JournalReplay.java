@@ -0,0 +1,185 @@
+package org.example.quannuoc.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Đọc journal order (OrderJournal ghi) ngoài luồng chính: dựng lại trạng thái các order của 1 ngày
+// hoặc xuất sự kiện dạng NDJSON cho phân tích offline. Chạy độc lập, không cần DB:
+//   java -cp app.jar -Dloader.main=org.example.quannuoc.util.JournalReplay \
+//        org.springframework.boot.loader.launch.PropertiesLauncher <thư mục journal> <yyyy-MM-dd> [--events]
+public class JournalReplay {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern SEGMENT = Pattern.compile("orders-(\\d{8})-(\\d{4})\\.journal");
+
+    public record Line(long itemId, long menuItemId, int quantity, long price, String status) {
+    }
+
+    public record ReplayedOrder(long orderId, long tableId, Instant openedAt, Instant paidAt,
+                                String paymentMethod, long paidAmount, boolean closed, Map<Long, Line> lines) {
+
+        // Tổng tiền tính lại từ các dòng (không tính món hủy) — so với paidAmount để đối soát
+        public long total() {
+            return lines.values().stream()
+                    .filter(l -> !"CANCELLED".equals(l.status()))
+                    .mapToLong(l -> l.price() * l.quantity())
+                    .sum();
+        }
+    }
+
+    private JournalReplay() {
+    }
+
+    public static String segmentName(LocalDate day, int seq) {
+        return "orders-" + DAY.format(day) + "-" + String.format("%04d", seq) + ".journal";
+    }
+
+    // Các segment của 1 ngày theo thứ tự ghi
+    public static List<Path> segments(Path dir, LocalDate day) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        String dayKey = DAY.format(day);
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        Matcher m = SEGMENT.matcher(p.getFileName().toString());
+                        return m.matches() && m.group(1).equals(dayKey);
+                    })
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static int sequenceOf(Path segment) {
+        Matcher m = SEGMENT.matcher(segment.getFileName().toString());
+        return m.matches() ? Integer.parseInt(m.group(2)) : 0;
+    }
+
+    // Duyệt tuần tự mọi sự kiện của 1 ngày; dừng mỗi segment ở bản ghi trống/hỏng đầu tiên
+    public static void forEach(Path dir, LocalDate day, Consumer<JournalEvent> consumer) {
+        for (Path segment : segments(dir, day)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                JournalEvent event;
+                while ((event = JournalEvent.decode(buffer)) != null) {
+                    consumer.accept(event);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static List<JournalEvent> read(Path dir, LocalDate day) {
+        List<JournalEvent> events = new ArrayList<>();
+        forEach(dir, day, events::add);
+        return events;
+    }
+
+    // Trạng thái cuối ngày của từng order xuất hiện trong journal ngày đó
+    public static Map<Long, ReplayedOrder> replay(Path dir, LocalDate day) {
+        Map<Long, OrderState> orders = new LinkedHashMap<>();
+        forEach(dir, day, event -> apply(orders, event));
+        Map<Long, ReplayedOrder> result = new LinkedHashMap<>();
+        orders.forEach((id, s) -> result.put(id, new ReplayedOrder(id, s.tableId, s.openedAt, s.paidAt,
+                s.paymentMethod, s.paidAmount, s.closed, Map.copyOf(s.lines))));
+        return result;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Cách dùng: JournalReplay <thư mục journal> <yyyy-MM-dd> [--events]");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]);
+        LocalDate day = LocalDate.parse(args[1]);
+        boolean events = args.length > 2 && "--events".equals(args[2]);
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        PrintStream out = System.out;
+        if (events) {
+            forEach(dir, day, e -> out.println(writeLine(mapper, e)));
+        } else {
+            replay(dir, day).values().forEach(o -> out.println(writeLine(mapper, o)));
+        }
+        out.flush();
+    }
+
+    // ─── Private helpers ─────────────────────────────────────────────────────
+
+    private static final class OrderState {
+        long tableId;
+        Instant openedAt;
+        Instant paidAt;
+        String paymentMethod;
+        long paidAmount;
+        boolean closed;
+        final Map<Long, Line> lines = new LinkedHashMap<>();
+    }
+
+    private static void apply(Map<Long, OrderState> orders, JournalEvent e) {
+        OrderState order = orders.computeIfAbsent(e.orderId(), id -> new OrderState());
+        switch (e.type()) {
+            case ORDER_OPENED -> {
+                order.tableId = e.tableId();
+                order.openedAt = Instant.ofEpochMilli(e.timestamp());
+            }
+            case ITEM_ADDED -> order.lines.put(e.itemId(),
+                    new Line(e.itemId(), e.menuItemId(), e.quantity(), e.amount(), e.text()));
+            case ITEM_UPDATED -> order.lines.computeIfPresent(e.itemId(),
+                    (id, l) -> new Line(id, l.menuItemId(), e.quantity(), l.price(), l.status()));
+            case ITEM_REMOVED -> order.lines.remove(e.itemId());
+            case ITEM_STATUS -> order.lines.computeIfPresent(e.itemId(),
+                    (id, l) -> new Line(id, l.menuItemId(), l.quantity(), l.price(), e.text()));
+            case ORDER_MOVED -> order.tableId = e.tableId();
+            case ITEM_MOVED -> {
+                // Order nguồn có thể mở từ hôm trước (không có trong journal ngày này) → dùng dữ liệu kèm sự kiện
+                OrderState source = orders.get(e.relatedId());
+                Line line = source != null ? source.lines.remove(e.itemId()) : null;
+                order.lines.put(e.itemId(), line != null ? line
+                        : new Line(e.itemId(), e.menuItemId(), e.quantity(), e.amount(), e.text()));
+                if (order.tableId == 0) {
+                    order.tableId = e.tableId();
+                }
+            }
+            case ORDER_CLOSED -> order.closed = true;
+            case ORDER_PAID -> {
+                order.paidAt = Instant.ofEpochMilli(e.timestamp());
+                order.paymentMethod = e.text();
+                order.paidAmount = e.amount();
+                order.closed = true;
+            }
+        }
+    }
+
+    private static String writeLine(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.quannuoc.util;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Tên + kế hoạch bảo trì partition theo tháng của bảng orders (xem V3__partition_orders.sql).
+// Không đụng DB để tính toán được kiểm thử độc lập; OrderPartitionMaintenance thực thi kế hoạch.
+public final class OrderPartitions {
+
+    // Partition DEFAULT chứa order đang mở (paid_at NULL)
+    public static final String OPEN = "orders_open";
+    // Partition lạnh [MINVALUE, mốc lưu trữ) gộp các tháng cũ (mode COMPACT)
+    public static final String ARCHIVE = "orders_archive";
+    // Schema chứa partition đã tách khỏi orders (mode DETACH)
+    public static final String ARCHIVE_SCHEMA = "archive";
+
+    private static final Pattern MONTHLY = Pattern.compile("orders_p(\\d{4})(\\d{2})");
+
+    // COMPACT: gộp tháng quá hạn vào orders_archive, vẫn truy vấn được qua orders
+    // DETACH: tách tháng quá hạn (cùng các dòng món) sang schema archive, orders không còn thấy
+    public enum ArchiveMode {
+        COMPACT, DETACH
+    }
+
+    // create: các tháng cần tạo trước; archive: các tháng cần lưu trữ (tăng dần), tất cả trước archiveBefore
+    public record Plan(List<YearMonth> create, List<YearMonth> archive, YearMonth archiveBefore) {
+
+        public boolean isEmpty() {
+            return create.isEmpty() && archive.isEmpty();
+        }
+    }
+
+    private OrderPartitions() {
+    }
+
+    public static String monthly(YearMonth month) {
+        return String.format("orders_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    public static String archivedItems(YearMonth month) {
+        return String.format("order_items_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    public static Optional<YearMonth> monthOf(String table) {
+        Matcher m = MONTHLY.matcher(table);
+        return m.matches()
+                ? Optional.of(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))))
+                : Optional.empty();
+    }
+
+    // Tạo sẵn tháng hiện tại + premakeMonths tháng tới (thanh toán không bao giờ rơi vào orders_open);
+    // giữ tháng hiện tại + retentionMonths tháng trước đó, tháng cũ hơn thì lưu trữ. retentionMonths <= 0: không lưu trữ
+    public static Plan plan(YearMonth current, Collection<YearMonth> existing, int premakeMonths, int retentionMonths) {
+        List<YearMonth> create = IntStream.rangeClosed(0, Math.max(0, premakeMonths))
+                .mapToObj(current::plusMonths)
+                .filter(m -> !existing.contains(m))
+                .toList();
+        YearMonth archiveBefore = current.minusMonths(retentionMonths);
+        List<YearMonth> archive = retentionMonths <= 0 ? List.of() : existing.stream()
+                .filter(m -> m.isBefore(archiveBefore))
+                .sorted()
+                .toList();
+        return new Plan(create, archive, archiveBefore);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.quannuoc.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Thử lại toàn bộ transaction khi commit bị từ chối do xung đột đồng thời
+// (optimistic lock / vi phạm unique index). Xử lý bởi RetryOnConflictAspect, bọc ngoài @Transactional.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    int maxAttempts() default 4;
+}
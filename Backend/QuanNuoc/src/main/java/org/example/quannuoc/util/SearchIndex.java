@@ -0,0 +1,117 @@
+package org.example.quannuoc.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Chỉ mục n-gram (1..3 ký tự) trên tên đã bỏ dấu (SearchUtils.fold), bất biến sau khi dựng.
+// Tìm: giao posting của các trigram trong từ khóa rồi kiểm tra lại bằng contains → không cần quét toàn bộ.
+// Xếp hạng: trùng khớp > bắt đầu bằng từ khóa > một từ bắt đầu bằng từ khóa > chứa từ khóa; hòa thì tên ngắn trước.
+public final class SearchIndex<K> {
+
+    private static final int GRAM = 3;
+
+    private final List<K> keys;
+    private final List<String> folded;
+    private final Map<String, BitSet> postings;
+
+    private SearchIndex(List<K> keys, List<String> folded, Map<String, BitSet> postings) {
+        this.keys = keys;
+        this.folded = folded;
+        this.postings = postings;
+    }
+
+    // Thứ tự duyệt của map quyết định thứ tự khi hòa điểm
+    public static <K> SearchIndex<K> of(Map<K, String> texts) {
+        List<K> keys = new ArrayList<>(texts.size());
+        List<String> folded = new ArrayList<>(texts.size());
+        Map<String, BitSet> postings = new HashMap<>();
+        texts.forEach((key, text) -> {
+            int doc = keys.size();
+            String f = SearchUtils.fold(text);
+            keys.add(key);
+            folded.add(f);
+            for (int n = 1; n <= GRAM; n++) {
+                for (int i = 0; i + n <= f.length(); i++) {
+                    postings.computeIfAbsent(f.substring(i, i + n), g -> new BitSet()).set(doc);
+                }
+            }
+        });
+        return new SearchIndex<>(List.copyOf(keys), List.copyOf(folded), postings);
+    }
+
+    public static <K> SearchIndex<K> empty() {
+        return new SearchIndex<>(List.of(), List.of(), Map.of());
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    // Khóa khớp với keyword theo thứ tự hạng; keyword rỗng (sau khi fold) → danh sách rỗng
+    public List<K> search(String keyword) {
+        String query = SearchUtils.fold(keyword);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        BitSet candidates = candidates(query);
+        List<int[]> ranked = new ArrayList<>();
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            int rank = rank(folded.get(doc), query);
+            if (rank >= 0) {
+                ranked.add(new int[]{rank, folded.get(doc).length(), doc});
+            }
+        }
+        ranked.sort(Comparator.<int[]>comparingInt(r -> r[0])
+                .thenComparingInt(r -> r[1])
+                .thenComparingInt(r -> r[2]));
+        return ranked.stream().map(r -> keys.get(r[2])).toList();
+    }
+
+    private BitSet candidates(String query) {
+        if (query.length() <= GRAM) {
+            BitSet posting = postings.get(query);
+            return posting != null ? (BitSet) posting.clone() : new BitSet();
+        }
+        BitSet result = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            BitSet posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) posting.clone();
+            } else {
+                result.and(posting);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // -1 = không khớp (trigram trùng nhưng không liền nhau)
+    private static int rank(String text, String query) {
+        if (text.equals(query)) {
+            return 0;
+        }
+        if (text.startsWith(query)) {
+            return 1;
+        }
+        int at = text.indexOf(query);
+        if (at < 0) {
+            return -1;
+        }
+        while (at >= 0) {
+            if (text.charAt(at - 1) == ' ') {
+                return 2;
+            }
+            at = text.indexOf(query, at + 1);
+        }
+        return 3;
+    }
+}
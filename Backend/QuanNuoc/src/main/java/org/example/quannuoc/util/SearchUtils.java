@@ -1,7 +1,28 @@
 package org.example.quannuoc.util;
 
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 public class SearchUtils {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{Alnum}]+");
+
     public static String getNormalizedKeyword(String keyword) {
         return (keyword == null || keyword.isBlank()) ? "" : keyword.trim();
     }
+
+    // Bỏ dấu tiếng Việt + chữ thường + gộp khoảng trắng: "Cà  Phê Đá" → "ca phe da"
+    public static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return NON_ALNUM.matcher(stripped).replaceAll(" ").trim();
+    }
 }
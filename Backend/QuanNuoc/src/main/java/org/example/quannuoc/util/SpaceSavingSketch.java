@@ -0,0 +1,94 @@
+package org.example.quannuoc.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving (Metwally et al.): đếm top-K trên luồng dữ liệu với tối đa `capacity` bộ đếm.
+// Khi đầy, khóa mới thay bộ đếm nhỏ nhất và thừa hưởng giá trị của nó → count là cận trên, error là mức sai tối đa.
+// Không thread-safe; người gọi tự khóa.
+public class SpaceSavingSketch {
+
+    public record Entry(long key, long count, long error, long revenue) {
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+        long revenue;
+    }
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity phải >= 1");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(long key, long count, long revenue) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter();
+            } else {
+                Map.Entry<Long, Counter> min = minEntry();
+                counters.remove(min.getKey());
+                counter = min.getValue();
+                counter.error = counter.count;
+            }
+            counters.put(key, counter);
+        }
+        counter.count += count;
+        counter.revenue += revenue;
+    }
+
+    public boolean isFull() {
+        return counters.size() >= capacity;
+    }
+
+    // Gộp nhiều sketch (vd. các bucket thời gian): khóa vắng mặt ở 1 sketch đã đầy có thể đã bị đẩy ra
+    // với giá trị tối đa bằng count nhỏ nhất của sketch đó → cộng vào cả count lẫn error
+    public static List<Entry> top(List<SpaceSavingSketch> sketches, int n) {
+        Map<Long, long[]> merged = new HashMap<>();
+        for (SpaceSavingSketch sketch : sketches) {
+            sketch.counters.forEach((key, c) -> {
+                long[] sums = merged.computeIfAbsent(key, k -> new long[3]);
+                sums[0] += c.count;
+                sums[1] += c.error;
+                sums[2] += c.revenue;
+            });
+        }
+        for (SpaceSavingSketch sketch : sketches) {
+            if (!sketch.isFull()) {
+                continue;
+            }
+            long min = sketch.minEntry().getValue().count;
+            merged.forEach((key, sums) -> {
+                if (!sketch.counters.containsKey(key)) {
+                    sums[0] += min;
+                    sums[1] += min;
+                }
+            });
+        }
+        List<Entry> entries = new ArrayList<>(merged.size());
+        merged.forEach((key, sums) -> entries.add(new Entry(key, sums[0], sums[1], sums[2])));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparingLong(Entry::key));
+        return entries.size() > n ? entries.subList(0, n) : entries;
+    }
+
+    private Map.Entry<Long, Counter> minEntry() {
+        Map.Entry<Long, Counter> min = null;
+        for (Map.Entry<Long, Counter> e : counters.entrySet()) {
+            if (min == null || e.getValue().count < min.getValue().count) {
+                min = e;
+            }
+        }
+        return min;
+    }
+}
@@ -0,0 +1,78 @@
+-- Schema hiện tại (trước đây do ddl-auto=update tạo).
+-- Viết idempotent: DB cũ được baseline ở version 0 rồi chạy file này, chỉ bổ sung phần còn thiếu.
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS categories (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL UNIQUE,
+    display_order INTEGER      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS menu_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    price       BIGINT       NOT NULL,
+    description VARCHAR(255),
+    available   BOOLEAN      NOT NULL,
+    category_id BIGINT,
+    CONSTRAINT fk_menu_items_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE IF NOT EXISTS dining_tables (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255) NOT NULL,
+    seats   INTEGER,
+    status  VARCHAR(255) NOT NULL CHECK (status IN ('AVAILABLE', 'OCCUPIED')),
+    note    VARCHAR(200),
+    version BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    dining_table_id BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    paid_at         TIMESTAMP(6),
+    total_amount    BIGINT       NOT NULL,
+    payment_method  VARCHAR(255),
+    note            VARCHAR(255),
+    version         BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT fk_orders_dining_table FOREIGN KEY (dining_table_id) REFERENCES dining_tables (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id             BIGINT       NOT NULL PRIMARY KEY,
+    order_id       BIGINT       NOT NULL,
+    menu_item_id   BIGINT       NOT NULL,
+    quantity       INTEGER      NOT NULL,
+    price_at_order BIGINT       NOT NULL,
+    status         VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'SERVING', 'SERVED', 'CANCELLED')),
+    note           VARCHAR(255),
+    ordered_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_menu_item FOREIGN KEY (menu_item_id) REFERENCES menu_items (id)
+);
+
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    sales_date  DATE   NOT NULL PRIMARY KEY,
+    revenue     BIGINT NOT NULL,
+    order_count BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS daily_item_sales_rollup (
+    sales_date   DATE   NOT NULL,
+    menu_item_id BIGINT NOT NULL,
+    quantity     BIGINT NOT NULL,
+    revenue      BIGINT NOT NULL,
+    order_count  BIGINT NOT NULL,
+    PRIMARY KEY (sales_date, menu_item_id)
+);
+
+-- Cột version (optimistic lock) thêm sau khi bảng đã tồn tại ở DB cũ
+ALTER TABLE dining_tables ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- DB cũ từng sinh id bằng IDENTITY: đẩy sequence (bước 50 theo allocationSize) qua id lớn nhất hiện có
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) FROM orders) + 50);
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) FROM order_items) + 50);
@@ -0,0 +1,14 @@
+-- Index cho các truy vấn nóng. IF NOT EXISTS vì DB cũ có thể đã có từ schema-postgresql.sql trước đây.
+
+-- Mỗi bàn chỉ có tối đa 1 order chưa thanh toán; đồng thời phục vụ tìm order đang mở theo bàn
+CREATE UNIQUE INDEX IF NOT EXISTS ux_orders_open_table ON orders (dining_table_id) WHERE paid_at IS NULL;
+
+-- Lịch sử theo (paid_at, id) giảm dần và lọc doanh thu theo khoảng paid_at
+CREATE INDEX IF NOT EXISTS ix_orders_paid_at_id ON orders (paid_at DESC, id DESC) WHERE paid_at IS NOT NULL;
+
+-- Hàng đợi bếp: lọc theo trạng thái, sắp theo giờ gọi
+CREATE INDEX IF NOT EXISTS ix_order_items_status_ordered_at ON order_items (status, ordered_at);
+
+-- Nạp các dòng món của order (FK không tự có index trong PostgreSQL)
+CREATE INDEX IF NOT EXISTS ix_order_items_order_id ON order_items (order_id);
+
@@ -0,0 +1,61 @@
+-- Chia bảng orders theo tháng thanh toán: RANGE trên paid_at, mỗi tháng 1 partition orders_pYYYYMM.
+-- Order đang mở (paid_at NULL) chỉ có thể nằm ở partition DEFAULT → orders_open là partition "nóng", luôn nhỏ;
+-- thanh toán (UPDATE paid_at) tự chuyển dòng sang partition của tháng đó.
+-- Partition tháng tới và lưu trữ partition cũ do OrderPartitionMaintenance quản lý (app.orders.partition.*).
+--
+-- PostgreSQL không cho PRIMARY KEY/UNIQUE trên bảng partition nếu thiếu cột paid_at (vốn nullable):
+-- khóa chính đặt trên từng partition, id vẫn duy nhất toàn bảng nhờ orders_seq.
+-- Vì vậy FK order_items → orders cũng phải bỏ; món luôn được ghi/xóa qua order (cascade phía ứng dụng).
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS fk_order_items_order;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE orders_unpartitioned DROP CONSTRAINT IF EXISTS fk_orders_dining_table;
+DROP INDEX IF EXISTS ux_orders_open_table;
+DROP INDEX IF EXISTS ix_orders_paid_at_id;
+
+CREATE TABLE orders (
+    id              BIGINT       NOT NULL,
+    dining_table_id BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    paid_at         TIMESTAMP(6),
+    total_amount    BIGINT       NOT NULL,
+    payment_method  VARCHAR(255),
+    note            VARCHAR(255),
+    version         BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT fk_orders_dining_table FOREIGN KEY (dining_table_id) REFERENCES dining_tables (id)
+) PARTITION BY RANGE (paid_at);
+
+CREATE TABLE orders_open PARTITION OF orders DEFAULT;
+ALTER TABLE orders_open ADD PRIMARY KEY (id);
+
+-- Partition cho mọi tháng đã có order thanh toán, tới 2 tháng sau tháng hiện tại
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(paid_at) FROM orders_unpartitioned), now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '2 months')::date;
+    part_name   TEXT;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        part_name := 'orders_p' || to_char(month_start, 'YYYYMM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                       part_name, month_start, (month_start + INTERVAL '1 month')::date);
+        EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id)', part_name);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO orders (id, dining_table_id, created_at, paid_at, total_amount, payment_method, note, version)
+SELECT id, dining_table_id, created_at, paid_at, total_amount, payment_method, note, version
+FROM orders_unpartitioned;
+
+DROP TABLE orders_unpartitioned;
+
+-- Mỗi bàn tối đa 1 order mở: order mở chỉ nằm trong orders_open nên unique cục bộ là đủ
+CREATE UNIQUE INDEX ux_orders_open_table ON orders_open (dining_table_id) WHERE paid_at IS NULL;
+
+-- Tạo trên bảng cha → tự có ở mọi partition, kể cả partition tạo sau
+CREATE INDEX ix_orders_paid_at_id ON orders (paid_at DESC, id DESC) WHERE paid_at IS NOT NULL;
+
+-- Nơi chứa partition đã tách khỏi orders (app.orders.archive.mode=DETACH)
+CREATE SCHEMA IF NOT EXISTS archive;
@@ -0,0 +1,12 @@
+-- Chia dòng tổng hợp mỗi ngày thành nhiều slot (theo id order) để các giao dịch thanh toán đồng thời
+-- không cùng chờ khóa 1 dòng; đọc thì cộng các slot lại. Dữ liệu cũ nằm ở slot 0.
+
+ALTER TABLE daily_sales_rollup ADD COLUMN slot INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE daily_sales_rollup ALTER COLUMN slot DROP DEFAULT;
+ALTER TABLE daily_sales_rollup DROP CONSTRAINT daily_sales_rollup_pkey;
+ALTER TABLE daily_sales_rollup ADD PRIMARY KEY (sales_date, slot);
+
+ALTER TABLE daily_item_sales_rollup ADD COLUMN slot INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE daily_item_sales_rollup ALTER COLUMN slot DROP DEFAULT;
+ALTER TABLE daily_item_sales_rollup DROP CONSTRAINT daily_item_sales_rollup_pkey;
+ALTER TABLE daily_item_sales_rollup ADD PRIMARY KEY (sales_date, menu_item_id, slot);
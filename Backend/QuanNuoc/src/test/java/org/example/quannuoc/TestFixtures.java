@@ -0,0 +1,60 @@
+package org.example.quannuoc;
+
+import lombok.RequiredArgsConstructor;
+import org.example.quannuoc.dto.request.OrderItemRequest;
+import org.example.quannuoc.dto.request.OrderRequest;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.example.quannuoc.repository.MenuItemRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Dữ liệu mẫu dùng chung cho các test tích hợp. Các test cùng context dùng chung 1 DB
+// nên tên danh mục / bàn (unique) luôn kèm System.nanoTime()
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final CategoryRepository categoryRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final DiningTableRepository diningTableRepository;
+
+    public Category category(String prefix) {
+        return categoryRepository.save(Category.builder().name(prefix + "-" + System.nanoTime()).build());
+    }
+
+    public MenuItem menuItem(Category category, String name, long price) {
+        return menuItemRepository.save(MenuItem.builder().name(name).price(price).category(category).build());
+    }
+
+    // "Bàn <label> <nanoTime>"
+    public DiningTable table(String label) {
+        return diningTableRepository.save(DiningTable.builder().name(tableName(label)).build());
+    }
+
+    public static String tableName(String label) {
+        return "Bàn " + label + " " + System.nanoTime();
+    }
+
+    public static OrderItemRequest line(MenuItem menuItem, int quantity) {
+        OrderItemRequest line = new OrderItemRequest();
+        line.setMenuItemId(menuItem.getId());
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    public static OrderRequest order(Long tableId, OrderItemRequest... lines) {
+        return order(tableId, List.of(lines));
+    }
+
+    public static OrderRequest order(Long tableId, List<OrderItemRequest> lines) {
+        OrderRequest request = new OrderRequest();
+        request.setTableId(tableId);
+        request.setItems(lines);
+        return request;
+    }
+}
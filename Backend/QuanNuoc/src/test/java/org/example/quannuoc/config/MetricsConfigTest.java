@@ -0,0 +1,73 @@
+package org.example.quannuoc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.DiningTableRequest;
+import org.example.quannuoc.dto.response.DiningTableResponse;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.service.DiningTableService;
+import org.example.quannuoc.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DiningTableService diningTableService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void businessGaugesFollowOpenOrdersAndPrometheusExposesTimers() throws Exception {
+        double openBefore = gauge("quannuoc.orders.open");
+        double occupiedBefore = gauge("quannuoc.tables.occupied");
+        double pendingBefore = gauge("quannuoc.kitchen.pending");
+
+        DiningTableRequest tableRequest = new DiningTableRequest();
+        tableRequest.setName(TestFixtures.tableName("metrics"));
+        tableRequest.setSeats(2);
+        DiningTableResponse table = diningTableService.create(tableRequest);
+        MenuItem menuItem = fixtures.menuItem(fixtures.category("Metrics"), "Trà đá", 5_000L);
+        orderService.createOrder(order(table.getId(), line(menuItem, 1), line(menuItem, 1)));
+
+        assertThat(gauge("quannuoc.orders.open")).isEqualTo(openBefore + 1);
+        assertThat(gauge("quannuoc.tables.occupied")).isEqualTo(occupiedBefore + 1);
+        assertThat(gauge("quannuoc.kitchen.pending")).isEqualTo(pendingBefore + 2);
+
+        mockMvc.perform(get("/api/dining-tables")).andExpect(status().isOk());
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(scrape)
+                .contains("quannuoc_orders_open")
+                .contains("http_server_requests_seconds_bucket")
+                .contains("spring_data_repository_invocations_seconds_bucket");
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
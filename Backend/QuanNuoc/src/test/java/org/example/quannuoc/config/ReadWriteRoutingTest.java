@@ -0,0 +1,135 @@
+package org.example.quannuoc.config;
+
+import org.example.quannuoc.dto.response.StatsResponse;
+import org.example.quannuoc.entity.DailySalesRollup;
+import org.example.quannuoc.repository.DailySalesRollupRepository;
+import org.example.quannuoc.service.OrderTotalAuditService;
+import org.example.quannuoc.service.StatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 2 DB H2 độc lập đóng vai primary và replica; "replica" được chép schema + dữ liệu khác primary
+// để biết truy vấn đã chạy ở đâu. Độ trễ giả lập bằng bảng replica_status trên replica.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadWriteRoutingTest.PRIMARY_URL,
+        "app.datasource.read.url=" + ReadWriteRoutingTest.READ_URL,
+        "app.datasource.read.username=sa",
+        "app.datasource.read.lag-query=SELECT lag_ms FROM replica_status",
+        "app.datasource.read.max-lag-ms=2000",
+        "app.datasource.read.lag-check-ms=3600000"
+})
+@DirtiesContext
+class ReadWriteRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String READ_URL = "jdbc:h2:mem:routing_read;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private OrderTotalAuditService orderTotalAuditService;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(READ_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        for (String ddl : new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA", String.class)) {
+            if (ddl.startsWith("CREATE") && !ddl.startsWith("CREATE USER")) {
+                replica.execute(ddl);
+            }
+        }
+        replica.execute("CREATE TABLE replica_status (lag_ms BIGINT)");
+        replica.update("INSERT INTO replica_status VALUES (0)");
+        replica.update("INSERT INTO daily_sales_rollup (sales_date, slot, revenue, order_count) VALUES (?, 0, 111, 1)", LocalDate.now());
+        dailySalesRollupRepository.save(DailySalesRollup.builder().salesDate(LocalDate.now()).revenue(999L).orderCount(3L).build());
+        lagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        long readRoutes = lagMonitor.getReadRouteCount();
+
+        StatsResponse stats = statsService.getTodayStats();
+
+        assertThat(stats.getTodayRevenue()).isEqualTo(111L);
+        assertThat(lagMonitor.getReadRouteCount()).isEqualTo(readRoutes + 1);
+        // Transaction readOnly mở ngoài method service → không được chuyển sang replica
+        assertThat(databaseName(true)).isEqualTo("routing_primary");
+        assertThat(databaseName(false)).isEqualTo("routing_primary");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class))
+                .isEqualTo("routing_primary");
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaLagsOrIsUnreachable() {
+        replica.update("UPDATE replica_status SET lag_ms = 5000");
+        lagMonitor.check();
+
+        assertThat(statsService.getTodayStats().getTodayRevenue()).isEqualTo(999L);
+        // Thống kê nhiều ngày chấp nhận trễ tới 60s (@DataSourceRoute) → vẫn đọc replica
+        assertThat(statsService.getRevenueChart(1).get(0).getRevenue()).isEqualTo(111L);
+
+        replica.execute("DROP TABLE replica_status");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.getLagMs()).isEqualTo(Long.MAX_VALUE);
+        assertThat(statsService.getRevenueChart(1).get(0).getRevenue()).isEqualTo(999L);
+    }
+
+    @Test
+    void totalAuditReadsPrimaryEvenThoughReadOnly() {
+        long readRoutes = lagMonitor.getReadRouteCount();
+
+        orderTotalAuditService.audit();
+
+        assertThat(lagMonitor.getReadRouteCount()).isEqualTo(readRoutes);
+    }
+
+    @Test
+    void repositoryCallOutsideTransactionReadsPrimary() {
+        long readRoutes = lagMonitor.getReadRouteCount();
+
+        // SimpleJpaRepository tự mở transaction readOnly quanh findAll — như gauge món chờ bếp trong MetricsConfig
+        assertThat(dailySalesRollupRepository.findAll())
+                .extracting(DailySalesRollup::getRevenue)
+                .containsExactly(999L);
+        assertThat(lagMonitor.getReadRouteCount()).isEqualTo(readRoutes);
+    }
+
+    private String databaseName(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.quannuoc.config;
+
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.util.RetryOnConflict;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(RetryOnConflictAspectTest.Probe.class)
+class RetryOnConflictAspectTest {
+
+    @Autowired
+    private Probe probe;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void retriesDuplicateKeyButFailsFastOnOtherConstraintViolations() {
+        String name = "Retry-" + System.nanoTime();
+        categoryRepository.save(Category.builder().name(name).build());
+
+        // Trùng unique (như 2 người cùng mở order 1 bàn) → thử lại đủ số lần
+        assertThatThrownBy(() -> probe.saveCategory(name)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(probe.takeAttempts()).isEqualTo(4);
+
+        // NOT NULL là lỗi dữ liệu — thử lại vẫn lỗi nên ném ngay
+        assertThatThrownBy(() -> probe.saveCategory(null))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateKeyException.class);
+        assertThat(probe.takeAttempts()).isEqualTo(1);
+    }
+
+    static class Probe {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @Autowired
+        private CategoryRepository categoryRepository;
+
+        @Transactional
+        @RetryOnConflict
+        public void saveCategory(String name) {
+            attempts.incrementAndGet();
+            categoryRepository.saveAndFlush(Category.builder().name(name).build());
+        }
+
+        public int takeAttempts() {
+            return attempts.getAndSet(0);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.quannuoc.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.DailySalesRollupRepository;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private DiningTableRepository diningTableRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private SecondLevelCacheEndpoint endpoint;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findByIdIsServedFromCacheAcrossTransactions() {
+        Long id = diningTableRepository.save(DiningTable.builder().name("Bàn L2 " + System.nanoTime()).build()).getId();
+        diningTableRepository.findById(id); // INSERT dùng IDENTITY không đưa entity vào cache, lần đọc đầu nạp vào
+        String region = DiningTable.class.getName();
+        statistics.clear();
+        long hitsBefore = endpoint.stats().regions().get(region).hits();
+
+        diningTableRepository.findById(id).orElseThrow();
+        diningTableRepository.findById(id).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(endpoint.stats().regions().get(region).hits()).isEqualTo(hitsBefore + 2);
+        assertThat(endpoint.stats().secondLevel().hitRatio()).isPositive();
+    }
+
+    @Test
+    void nativeRollupWritesKeepEntityRegions() {
+        Long id = diningTableRepository.save(DiningTable.builder().name("Bàn L2 " + System.nanoTime()).build()).getId();
+        diningTableRepository.findById(id);
+
+        // INSERT native vào bảng tổng hợp (mỗi lần thanh toán) chỉ làm mất hiệu lực daily_sales_rollup
+        transactionTemplate.executeWithoutResult(s -> dailySalesRollupRepository.insertIfAbsent(LocalDate.now(), 0));
+        statistics.clear();
+        diningTableRepository.findById(id).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void queryCacheIsOff() {
+        statistics.clear();
+        diningTableRepository.findAllResponses();
+        categoryRepository.findAllResponses();
+
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions().isQueryCacheEnabled()).isFalse();
+        assertThat(statistics.getQueryCachePutCount()).isZero();
+    }
+}
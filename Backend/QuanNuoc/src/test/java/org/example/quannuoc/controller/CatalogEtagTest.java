@@ -0,0 +1,109 @@
+package org.example.quannuoc.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.CategoryRequest;
+import org.example.quannuoc.dto.request.DiningTableRequest;
+import org.example.quannuoc.dto.response.DiningTableResponse;
+import org.example.quannuoc.entity.TableStatus;
+import org.example.quannuoc.service.CatalogVersions;
+import org.example.quannuoc.service.CategoryService;
+import org.example.quannuoc.service.DiningTableService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DiningTableService diningTableService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void tablesAnswer304WithoutQueryingUntilAWriteCommits() throws Exception {
+        String etag = etag("/api/dining-tables");
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mockMvc.perform(get("/api/dining-tables").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        DiningTableRequest request = new DiningTableRequest();
+        request.setName(TestFixtures.tableName("etag"));
+        request.setSeats(2);
+        DiningTableResponse table = diningTableService.create(request);
+        String afterCreate = etag("/api/dining-tables");
+        assertThat(afterCreate).isNotEqualTo(etag);
+
+        diningTableService.updateStatus(table.getId(), TableStatus.OCCUPIED);
+        mockMvc.perform(get("/api/dining-tables").header(HttpHeaders.IF_NONE_MATCH, afterCreate))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void renamingACategoryChangesMenuAndCategoryEtags() throws Exception {
+        String menu = etag("/api/menu-items");
+        String categories = etag("/api/categories");
+
+        CategoryRequest request = new CategoryRequest();
+        request.setName("Etag-" + System.nanoTime());
+        categoryService.create(request);
+
+        assertThat(etag("/api/menu-items")).isNotEqualTo(menu);
+        assertThat(etag("/api/categories")).isNotEqualTo(categories);
+    }
+
+    @Test
+    void writeInTheSameSecondAsAGetIsNotHiddenByIfModifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/dining-tables"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        DiningTableRequest request = new DiningTableRequest();
+        request.setName(TestFixtures.tableName("cùng giây"));
+        diningTableService.create(request);
+
+        mockMvc.perform(get("/api/dining-tables").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk());
+
+        // Nhiều lần ghi trong cùng 1 giây vẫn cho Last-Modified tăng dần (bump ngoài transaction áp dụng ngay)
+        Instant before = catalogVersions.current(CatalogVersions.Catalog.TABLES).lastModified();
+        catalogVersions.bump(CatalogVersions.Catalog.TABLES);
+        assertThat(catalogVersions.current(CatalogVersions.Catalog.TABLES).lastModified()).isAfter(before);
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"");
+        return etag;
+    }
+}
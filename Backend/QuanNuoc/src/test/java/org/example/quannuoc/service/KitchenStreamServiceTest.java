@@ -0,0 +1,117 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.dto.response.KitchenItemResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KitchenStreamServiceTest {
+
+    private KitchenStreamService service;
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void snapshotIsSentBeforeEventsQueuedWhileItWasBuilt() throws InterruptedException {
+        service = new KitchenStreamService(8, 60_000, 1);
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // Sự kiện đến giữa lúc đăng ký và lúc dựng xong snapshot
+        service.subscribe(() -> {
+            service.publish(KitchenStreamService.ITEM_ADDED, item(1));
+            return List.of(item(2));
+        }, emitter);
+
+        emitter.awaitEvents(2);
+        assertThat(emitter.events).containsExactly(KitchenStreamService.SNAPSHOT, KitchenStreamService.ITEM_ADDED);
+    }
+
+    @Test
+    void slowSubscriberIsClosedWhenBufferFillsWithoutHoldingUpOthers() throws InterruptedException {
+        service = new KitchenStreamService(2, 60_000, 2);
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.gate = new CountDownLatch(1);
+        RecordingEmitter fast = new RecordingEmitter();
+        service.subscribe(List::of, slow);
+        service.subscribe(List::of, fast);
+        assertThat(slow.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // slow kẹt khi gửi snapshot: 2 sự kiện đầu vào buffer, sự kiện thứ 3 làm đầy → bị ngắt
+        for (int i = 1; i <= 3; i++) {
+            service.publish(KitchenStreamService.ITEM_ADDED, item(i));
+            fast.awaitEvents(i + 1);
+        }
+
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getSubscriberCount()).isEqualTo(1);
+        assertThat(fast.events).containsExactly(KitchenStreamService.SNAPSHOT, KitchenStreamService.ITEM_ADDED,
+                KitchenStreamService.ITEM_ADDED, KitchenStreamService.ITEM_ADDED);
+        slow.gate.countDown();
+    }
+
+    @Test
+    void disconnectedSubscriberIsRemovedOnSendFailure() throws InterruptedException {
+        service = new KitchenStreamService(8, 60_000, 1);
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failAfter = 1;
+        service.subscribe(List::of, broken);
+
+        service.publish(KitchenStreamService.ITEM_UPDATED, item(1));
+
+        assertThat(broken.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getSubscriberCount()).isZero();
+        assertThat(broken.events).containsExactly(KitchenStreamService.SNAPSHOT);
+    }
+
+    private static KitchenItemResponse item(long id) {
+        return KitchenItemResponse.builder().id(id).status("PENDING").build();
+    }
+
+    // Ghi lại tên sự kiện đã gửi; gate chặn lần gửi như client đọc chậm, failAfter giả lập client ngắt kết nối
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile int failAfter = Integer.MAX_VALUE;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (events.size() >= failAfter) {
+                throw new IOException("Client đã ngắt kết nối");
+            }
+            String head = builder.build().iterator().next().getData().toString();
+            events.add(head.substring("event:".length(), head.indexOf('\n')));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(events).hasSizeGreaterThanOrEqualTo(count);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.dto.request.CategoryRequest;
+import org.example.quannuoc.dto.request.MenuItemRequest;
+import org.example.quannuoc.dto.response.CatalogStatsResponse;
+import org.example.quannuoc.dto.response.CategoryResponse;
+import org.example.quannuoc.dto.response.MenuItemResponse;
+import org.example.quannuoc.repository.CategoryRepository;
+import org.example.quannuoc.repository.MenuItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class MenuCatalogTest {
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Test
+    void writesThroughServicesArePatchedIntoCatalog() {
+        CategoryRequest categoryRequest = new CategoryRequest();
+        categoryRequest.setName("Catalog-" + System.nanoTime());
+        CategoryResponse category = categoryService.create(categoryRequest);
+
+        MenuItemRequest itemRequest = new MenuItemRequest();
+        itemRequest.setName("Trà đào");
+        itemRequest.setPrice(30_000L);
+        itemRequest.setCategoryId(category.getId());
+        MenuItemResponse item = menuItemService.create(itemRequest);
+
+        assertThat(menuItemService.getAll(category.getId(), null, null))
+                .extracting(MenuItemResponse::getId)
+                .containsExactly(item.getId());
+
+        menuItemService.toggleAvailability(item.getId());
+        assertThat(menuItemService.getById(item.getId()).getAvailable()).isFalse();
+
+        categoryRequest.setName(category.getName() + "-renamed");
+        categoryService.update(category.getId(), categoryRequest);
+        assertThat(menuItemService.getById(item.getId()).getCategoryName()).endsWith("-renamed");
+
+        menuItemService.delete(item.getId());
+        assertThat(menuItemService.getAll(category.getId(), null, null)).isEmpty();
+
+        CatalogStatsResponse stats = menuCatalog.getStats();
+        assertThat(stats.getHits()).isPositive();
+        assertThat(stats.getEvictions()).isPositive();
+    }
+
+    @Test
+    void keywordSearchIgnoresDiacriticsAndFollowsWrites() {
+        CategoryRequest categoryRequest = new CategoryRequest();
+        categoryRequest.setName("Search-" + System.nanoTime());
+        CategoryResponse category = categoryService.create(categoryRequest);
+
+        MenuItemRequest itemRequest = new MenuItemRequest();
+        itemRequest.setName("Cà phê muối");
+        itemRequest.setPrice(35_000L);
+        itemRequest.setCategoryId(category.getId());
+        MenuItemResponse item = menuItemService.create(itemRequest);
+
+        assertThat(menuItemService.getAll(category.getId(), null, "ca phe muoi"))
+                .extracting(MenuItemResponse::getId)
+                .containsExactly(item.getId());
+
+        itemRequest.setName("Sữa chua nếp cẩm");
+        menuItemService.update(item.getId(), itemRequest);
+        assertThat(menuItemService.getAll(category.getId(), null, "ca phe muoi")).isEmpty();
+        assertThat(menuItemService.getAll(category.getId(), null, "nep cam"))
+                .extracting(MenuItemResponse::getId)
+                .containsExactly(item.getId());
+    }
+
+    @Test
+    void missDoesNotResurrectItemDeletedWhileReadingDb() {
+        MenuItemRepository items = mock(MenuItemRepository.class);
+        CategoryRepository categories = mock(CategoryRepository.class);
+        MenuCatalog catalog = new MenuCatalog(items, categories);
+        when(items.findAllResponses()).thenReturn(List.of());
+        when(categories.findAllResponses()).thenReturn(List.of());
+        MenuItemResponse item = MenuItemResponse.builder().id(7L).name("Trà chanh").build();
+
+        // Lệnh xóa commit sau khi lần miss đã đọc DB nhưng trước khi kịp nạp vào catalog
+        when(items.findResponseById(7L)).thenAnswer(invocation -> {
+            catalog.removeMenuItem(7L);
+            return Optional.of(item);
+        });
+        assertThat(catalog.findMenuItem(7L)).contains(item);
+
+        when(items.findResponseById(7L)).thenReturn(Optional.empty());
+        assertThat(catalog.findMenuItem(7L)).isEmpty();
+        assertThat(catalog.getStats().getMenuItems()).isZero();
+    }
+
+    @Test
+    void replacingAnEntryIsNotCountedAsEviction() {
+        MenuItemRepository items = mock(MenuItemRepository.class);
+        CategoryRepository categories = mock(CategoryRepository.class);
+        MenuCatalog catalog = new MenuCatalog(items, categories);
+        when(items.findAllResponses()).thenReturn(List.of());
+        when(categories.findAllResponses()).thenReturn(List.of());
+        MenuItemResponse item = MenuItemResponse.builder().id(8L).name("Bạc xỉu").build();
+        catalog.getCategories();
+
+        catalog.putMenuItem(item);
+        catalog.putMenuItem(item.toBuilder().name("Bạc xỉu đá").build());
+        assertThat(catalog.getStats().getEvictions()).isZero();
+        assertThat(catalog.findMenuItem(8L)).map(MenuItemResponse::getName).contains("Bạc xỉu đá");
+
+        catalog.removeMenuItem(8L);
+        assertThat(catalog.getStats().getEvictions()).isEqualTo(1);
+    }
+}
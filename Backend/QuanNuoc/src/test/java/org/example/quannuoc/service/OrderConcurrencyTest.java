@@ -0,0 +1,122 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.AddOrderItemsRequest;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.repository.OrderItemRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class OrderConcurrencyTest {
+
+    private static final int TABLES = 10;
+    private static final int WAITERS_PER_TABLE = 6;
+    private static final int EDITS_PER_TABLE = 6;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void concurrentOpenAndEdit_keepsOneOpenOrderPerTableAndConsistentTotals() throws Exception {
+        Category category = fixtures.category("Concurrency");
+        MenuItem menuItem = fixtures.menuItem(category, "Sinh tố bơ", 35_000L);
+        List<DiningTable> tables = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            tables.add(fixtures.table("song song"));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            // Pha 1: nhiều phục vụ cùng mở order cho cùng 1 bàn
+            AtomicInteger opened = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            runConcurrently(pool, tables.size() * WAITERS_PER_TABLE, i -> {
+                try {
+                    orderService.createOrder(order(tables.get(i % TABLES).getId(), line(menuItem, 1)));
+                    opened.incrementAndGet();
+                } catch (IllegalStateException | ConcurrencyFailureException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+            assertThat(opened.get()).isEqualTo(TABLES);
+            assertThat(rejected.get()).isEqualTo(TABLES * (WAITERS_PER_TABLE - 1));
+
+            // Pha 2: nhiều người cùng thêm món vào cùng 1 order
+            List<Long> orderIds = tables.stream()
+                    .map(t -> orderRepository.findByDiningTableIdAndPaidAtIsNull(t.getId()).orElseThrow().getId())
+                    .toList();
+            AtomicInteger added = new AtomicInteger();
+            runConcurrently(pool, TABLES * EDITS_PER_TABLE, i -> {
+                AddOrderItemsRequest request = new AddOrderItemsRequest();
+                request.setItems(List.of(line(menuItem, 1)));
+                try {
+                    orderService.addItemsToOrder(orderIds.get(i % TABLES), request);
+                    added.incrementAndGet();
+                } catch (ConcurrencyFailureException e) {
+                    // hết lượt thử lại — chấp nhận, miễn là tổng tiền không lệch
+                }
+            });
+            assertThat(added.get()).isPositive();
+
+            long lines = 0;
+            for (Long orderId : orderIds) {
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
+                long expected = items.stream().mapToLong(it -> it.getPriceAtOrder() * it.getQuantity()).sum();
+                assertThat(order.getTotalAmount()).isEqualTo(expected);
+                lines += items.size();
+            }
+            assertThat(lines).isEqualTo(TABLES + added.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void runConcurrently(ExecutorService pool, int tasks, IntConsumerTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerTask {
+        void run(int index) throws Exception;
+    }
+}
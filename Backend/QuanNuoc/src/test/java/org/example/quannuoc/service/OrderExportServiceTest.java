@@ -0,0 +1,94 @@
+package org.example.quannuoc.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.ExportFormat;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = fixtures.category("Export");
+        MenuItem plain = fixtures.menuItem(category, "Bạc xỉu", 25_000L);
+        MenuItem quoted = fixtures.menuItem(category, "Trà \"đào\", cam sả", 30_000L);
+        DiningTable table = fixtures.table("export");
+
+        orderId = orderService.createOrder(order(table.getId(), line(plain, 2), line(quoted, 1))).getId();
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        orderService.payOrder(orderId, pay);
+    }
+
+    @Test
+    void csvHasOneEscapedRowPerItem() throws Exception {
+        String csv = export(ExportFormat.CSV);
+
+        assertThat(csv).startsWith("\uFEFForder_id,table,");
+        List<String> rows = csv.lines().filter(l -> l.startsWith(orderId + ",")).toList();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).contains(",Bạc xỉu,2,25000,50000,PENDING,");
+        assertThat(rows.get(1)).contains(",\"Trà \"\"đào\"\", cam sả\",1,30000,30000,");
+    }
+
+    @Test
+    void ndjsonHasOneOrderPerLineWithItems() throws Exception {
+        String ndjson = export(ExportFormat.NDJSON);
+
+        JsonNode order = null;
+        for (String line : ndjson.split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == orderId) {
+                order = node;
+            }
+        }
+        assertThat(order).isNotNull();
+        assertThat(order.get("totalAmount").asLong()).isEqualTo(80_000L);
+        assertThat(order.get("items")).hasSize(2);
+        assertThat(order.get("items").get(1).get("menuItem").asText()).isEqualTo("Trà \"đào\", cam sả");
+    }
+
+    @Test
+    void rejectsReversedRange() {
+        assertThatThrownBy(() -> orderExportService.checkRange(LocalDate.now(), LocalDate.now().minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(LocalDate.now(), LocalDate.now(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }}
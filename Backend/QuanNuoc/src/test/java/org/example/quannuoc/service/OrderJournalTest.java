@@ -0,0 +1,159 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.ItemStatusTransitionRequest;
+import org.example.quannuoc.dto.request.MoveTableRequest;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.request.UpdateOrderItemRequest;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.util.JournalEvent;
+import org.example.quannuoc.util.JournalReplay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class OrderJournalTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void replayRebuildsOrderStateFromServiceMutations() {
+        Category category = fixtures.category("Journal");
+        MenuItem coffee = fixtures.menuItem(category, "Cà phê", 20_000L);
+        MenuItem tea = fixtures.menuItem(category, "Trà", 15_000L);
+        DiningTable source = fixtures.table("journal A");
+        DiningTable target = fixtures.table("journal B");
+
+        OrderResponse order = orderService.createOrder(order(source.getId(), line(coffee, 2), line(tea, 1)));
+        Long coffeeLine = order.getItems().get(0).getId();
+        Long teaLine = order.getItems().get(1).getId();
+
+        UpdateOrderItemRequest update = new UpdateOrderItemRequest();
+        update.setQuantity(3);
+        orderService.updateOrderItem(order.getId(), coffeeLine, update);
+        ItemStatusTransitionRequest cancel = new ItemStatusTransitionRequest();
+        cancel.setOrderItemIds(List.of(teaLine));
+        cancel.setStatus(OrderItemStatus.CANCELLED);
+        orderService.transitionItems(cancel);
+        MoveTableRequest move = new MoveTableRequest();
+        move.setSourceTableId(source.getId());
+        move.setTargetTableId(target.getId());
+        orderService.moveOrder(move);
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        OrderResponse paid = orderService.payOrder(order.getId(), pay);
+        orderJournal.flush();
+
+        JournalReplay.ReplayedOrder replayed = JournalReplay.replay(orderJournal.getDir(), LocalDate.now(orderJournal.getZone())).get(order.getId());
+        assertThat(replayed.tableId()).isEqualTo(target.getId());
+        assertThat(replayed.lines().get(coffeeLine).quantity()).isEqualTo(3);
+        assertThat(replayed.lines().get(teaLine).status()).isEqualTo("CANCELLED");
+        assertThat(replayed.paymentMethod()).isEqualTo("CASH");
+        assertThat(replayed.paidAmount()).isEqualTo(paid.getTotalAmount()).isEqualTo(60_000L);
+        assertThat(replayed.total()).isEqualTo(replayed.paidAmount());
+    }
+
+    @Test
+    void rotatesSegmentsAndResumesAfterTornWrite(@TempDir Path dir) throws IOException {
+        OrderJournal journal = new OrderJournal(true, dir.toString(), 1024, OrderJournal.FsyncPolicy.GROUP, ZONE);
+        List<JournalEvent> batch = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            batch.add(event(i));
+        }
+        journal.append(batch);
+        journal.close();
+
+        LocalDate today = LocalDate.now(ZONE);
+        List<Path> segments = JournalReplay.segments(dir, today);
+        assertThat(segments).hasSizeGreaterThan(1);
+        assertThat(JournalReplay.read(dir, today)).extracting(JournalEvent::orderId)
+                .containsExactlyElementsOf(batch.stream().map(JournalEvent::orderId).toList());
+
+        // Giả lập crash giữa chừng: header của bản ghi tiếp theo đã ghi nhưng body chưa có
+        Path last = segments.get(segments.size() - 1);
+        int end = endOfData(last);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 71), end);
+        }
+
+        OrderJournal restarted = new OrderJournal(true, dir.toString(), 1024, OrderJournal.FsyncPolicy.ALWAYS, ZONE);
+        restarted.append(List.of(event(41)));
+        restarted.close();
+
+        assertThat(JournalReplay.read(dir, today)).extracting(JournalEvent::orderId).hasSize(41).endsWith(41L);
+        assertThat(JournalReplay.segments(dir, today)).hasSameSizeAs(segments);
+    }
+
+    @Test
+    void segmentsFollowTheConfiguredZoneAndQueuedEventsKeepCommitOrder(@TempDir Path dir) throws IOException {
+        OrderJournal journal = new OrderJournal(true, dir.toString(), 4096, OrderJournal.FsyncPolicy.ALWAYS, ZONE);
+        // 18:30 UTC ngày 1/3 là 01:30 sáng 2/3 ở Việt Nam → thuộc segment ngày 2/3 dù máy chủ chạy UTC
+        long lateNightUtc = Instant.parse("2026-03-01T18:30:00Z").toEpochMilli();
+        for (long orderId = 1; orderId <= 20; orderId++) {
+            journal.appendAfterCommit(List.of(event(orderId, lateNightUtc)));
+        }
+        journal.close();
+
+        assertThat(JournalReplay.segments(dir, LocalDate.of(2026, 3, 1))).isEmpty();
+        assertThat(JournalReplay.read(dir, LocalDate.of(2026, 3, 2))).extracting(JournalEvent::orderId)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 20).boxed().toList());
+    }
+
+    private static int endOfData(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (JournalEvent.decode(buffer) != null) {
+                // đọc tới cuối dữ liệu hợp lệ
+            }
+            return buffer.position();
+        }
+    }
+
+    private static JournalEvent event(long orderId) {
+        return event(orderId, System.currentTimeMillis());
+    }
+
+    private static JournalEvent event(long orderId, long timestamp) {
+        return JournalEvent.builder()
+                .type(JournalEvent.Type.ITEM_ADDED)
+                .timestamp(timestamp)
+                .orderId(orderId)
+                .tableId(1)
+                .itemId(orderId * 10)
+                .menuItemId(7)
+                .quantity(2)
+                .amount(25_000L)
+                .text("PENDING")
+                .build();
+    }}
@@ -0,0 +1,181 @@
+package org.example.quannuoc.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.OrderPartitionRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.example.quannuoc.util.OrderPartitions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+// Partition theo tháng của bảng orders trên PostgreSQL thật (embedded) — H2 không hỗ trợ partition
+@SpringBootTest
+@DirtiesContext
+class OrderPartitionMaintenanceTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private OrderPartitionMaintenance maintenance;
+
+    @Autowired
+    private OrderPartitionRepository orderPartitionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DiningTable table;
+    private MenuItem coffee;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @BeforeEach
+    void seed() {
+        Category category = fixtures.category("Partition");
+        coffee = fixtures.menuItem(category, "Cà phê", 30_000L);
+        table = fixtures.table("partition");
+    }
+
+    @Test
+    void openOrdersStayInHotPartitionAndPaymentMovesThemToTheMonth() {
+        // Lúc khởi động đã tạo sẵn tháng hiện tại + 3 tháng tới
+        assertThat(orderPartitionRepository.monthlyPartitions())
+                .contains(YearMonth.now(), YearMonth.now().plusMonths(3));
+
+        OrderResponse order = orderService.createOrder(order(table.getId(), line(coffee, 2)));
+        assertThat(partitionOf(order.getId())).isEqualTo(OrderPartitions.OPEN);
+
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        orderService.payOrder(order.getId(), pay);
+
+        assertThat(partitionOf(order.getId())).isEqualTo(OrderPartitions.monthly(YearMonth.now()));
+        assertThat(orderService.getById(order.getId()).getItems()).hasSize(1);
+        assertThat(orderRepository.findByDiningTableIdAndPaidAtIsNull(table.getId())).isEmpty();
+    }
+
+    @Test
+    void archivesMonthsPastRetentionByDetachingThenCompacting() {
+        YearMonth now = YearMonth.now();
+
+        // DETACH: tháng cũ rời khỏi orders cùng dòng món; bảng tổng hợp doanh thu của ngày đó giữ nguyên
+        OrderPartitionMaintenance detach = new OrderPartitionMaintenance(orderPartitionRepository,
+                transactionTemplate, 3, 12, OrderPartitions.ArchiveMode.DETACH);
+        detach.maintain(now.minusMonths(20));
+        LocalDateTime detachedPaidAt = now.minusMonths(20).atDay(5).atTime(19, 0);
+        long detached = insertPaidOrder(detachedPaidAt);
+        jdbcTemplate.update("INSERT INTO daily_sales_rollup (sales_date, slot, revenue, order_count) VALUES (?, 0, 30000, 1)",
+                detachedPaidAt.toLocalDate());
+        // Ngày còn trong orders nhưng bảng tổng hợp bị sai → rebuild phải tính lại
+        LocalDateTime retainedPaidAt = now.minusMonths(1).atDay(3).atTime(20, 0);
+        insertPaidOrder(retainedPaidAt);
+        jdbcTemplate.update("INSERT INTO daily_sales_rollup (sales_date, slot, revenue, order_count) VALUES (?, 3, 1, 1)",
+                retainedPaidAt.toLocalDate());
+
+        OrderPartitions.Plan plan = detach.maintain(now);
+
+        assertThat(plan.archive()).containsExactly(
+                now.minusMonths(20), now.minusMonths(19), now.minusMonths(18), now.minusMonths(17));
+        assertThat(orderRepository.findById(detached)).isEmpty();
+        assertThat(count("archive." + OrderPartitions.monthly(now.minusMonths(20)))).isEqualTo(1);
+        assertThat(count("archive." + OrderPartitions.archivedItems(now.minusMonths(20)))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_id = ?",
+                Long.class, detached)).isZero();
+        salesRollupService.rebuild();
+        // Ngày đã tách sang archive giữ nguyên số liệu; ngày còn trong orders được tính lại từ orders
+        assertThat(revenueOn(detachedPaidAt)).isEqualTo(30_000L);
+        assertThat(revenueOn(retainedPaidAt)).isEqualTo(30_000L);
+
+        // COMPACT: các tháng quá hạn gộp vào orders_archive, vẫn đọc được qua orders
+        maintenance.maintain(now.minusMonths(15));
+        long compacted = insertPaidOrder(now.minusMonths(15).atDay(10).atTime(12, 0));
+
+        // Lúc khởi động chỉ tạo trước partition, không lưu trữ
+        assertThat(maintenance.maintain(now, false).archive()).isEmpty();
+        assertThat(orderPartitionRepository.monthlyPartitions()).contains(now.minusMonths(15));
+
+        plan = maintenance.maintain(now);
+
+        assertThat(plan.archive()).containsExactly(now.minusMonths(15), now.minusMonths(14), now.minusMonths(13));
+        assertThat(orderPartitionRepository.partitions())
+                .contains(OrderPartitions.ARCHIVE, OrderPartitions.monthly(now.minusMonths(12)))
+                .doesNotContain(OrderPartitions.monthly(now.minusMonths(15)));
+        assertThat(partitionOf(compacted)).isEqualTo(OrderPartitions.ARCHIVE);
+        assertThat(orderService.getById(compacted).getItems()).hasSize(1);
+        assertThat(maintenance.maintain(now).isEmpty()).isTrue();
+
+        // Không có FK order_items → orders: dòng món mồ côi chỉ lộ ra qua đối soát
+        assertThat(maintenance.auditOrphanItems()).isZero();
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, menu_item_id, quantity, price_at_order, status, ordered_at) " +
+                "VALUES (nextval('order_items_seq'), ?, ?, 1, 30000, 'SERVED', ?)", Long.MAX_VALUE, coffee.getId(), LocalDateTime.now());
+        assertThat(maintenance.auditOrphanItems()).isEqualTo(1);
+        assertThat(maintenance.getLastOrphanCount()).isEqualTo(1);
+        jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ?", Long.MAX_VALUE);
+    }
+
+    private long revenueOn(LocalDateTime paidAt) {
+        return jdbcTemplate.queryForObject("SELECT SUM(revenue) FROM daily_sales_rollup WHERE sales_date = ?",
+                Long.class, paidAt.toLocalDate());
+    }
+
+    private long insertPaidOrder(LocalDateTime paidAt) {
+        long id = jdbcTemplate.queryForObject("SELECT nextval('orders_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO orders (id, dining_table_id, created_at, paid_at, total_amount, payment_method) " +
+                "VALUES (?, ?, ?, ?, 30000, 'CASH')", id, table.getId(), paidAt.minusHours(1), paidAt);
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, menu_item_id, quantity, price_at_order, status, ordered_at) " +
+                "VALUES (nextval('order_items_seq'), ?, ?, 1, 30000, 'SERVED', ?)", id, coffee.getId(), paidAt.minusHours(1));
+        return id;
+    }
+
+    private String partitionOf(long orderId) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?", String.class, orderId);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }}
@@ -0,0 +1,171 @@
+package org.example.quannuoc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.request.UpdateOrderItemRequest;
+import org.example.quannuoc.dto.response.CursorPageResponse;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.TableStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class OrderQueryCountTest {
+
+    private static final int TABLES = 12;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private DiningTableService diningTableService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<MenuItem> menuItems;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Category category = fixtures.category("N+1");
+        menuItems = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            menuItems.add(fixtures.menuItem(category, "Món N+1 " + i, 15_000L));
+        }
+    }
+
+    @Test
+    void getAllActive_loadsAllOpenOrdersInOneQuery() {
+        List<Long> orderIds = openOrders(TABLES);
+        orderService.getAllActive(); // nạp MenuCatalog
+
+        statistics.clear();
+        List<OrderResponse> active = orderService.getAllActive();
+
+        assertThat(active).extracting(OrderResponse::getId).containsAll(orderIds);
+        assertThat(active).allSatisfy(o -> assertThat(o.getItems()).isNotEmpty());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getHistory_loadsPageInBoundedQueries() {
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        openOrders(TABLES).forEach(id -> orderService.payOrder(id, pay));
+        orderService.getHistory(PageRequest.of(0, 10)); // nạp MenuCatalog
+
+        statistics.clear();
+        Page<OrderResponse> page = orderService.getHistory(PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getContent()).allSatisfy(o -> assertThat(o.getItems()).isNotEmpty());
+        // id của trang + COUNT + nạp order/bàn/món
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getHistoryByCursor_walksSameOrderAsPagesWithoutCount() {
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        openOrders(TABLES).forEach(id -> orderService.payOrder(id, pay));
+        List<Long> expected = orderService.getHistory(PageRequest.of(0, 10_000)).getContent().stream()
+                .map(OrderResponse::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            CursorPageResponse<OrderResponse> page = orderService.getHistory(cursor, 5);
+            // id của trang + nạp order/bàn/món, không COUNT
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+            page.getItems().forEach(o -> walked.add(o.getId()));
+            assertThat(page.isHasMore()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    void getByIdAndActiveOrder_loadOrderWithItemsInOneQueryOutsideTransaction() {
+        Long orderId = openOrders(1).get(0);
+        OrderResponse created = orderService.getById(orderId); // nạp MenuCatalog
+
+        statistics.clear();
+        OrderResponse byId = orderService.getById(orderId);
+        assertThat(byId.getItems()).hasSize(menuItems.size());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(orderService.getActiveOrderByTableId(created.getTableId()).getId()).isEqualTo(orderId);
+    }
+
+    @Test
+    void updateOrderItem_writesOrderRowOnce() {
+        Long orderId = openOrders(1).get(0);
+        OrderResponse before = orderService.getById(orderId);
+        UpdateOrderItemRequest update = new UpdateOrderItemRequest();
+        update.setQuantity(3);
+
+        statistics.clear();
+        OrderResponse updated = orderService.updateOrderItem(orderId, before.getItems().get(0).getId(), update);
+
+        assertThat(updated.getTotalAmount()).isEqualTo(before.getTotalAmount() + 2 * 15_000L);
+        // Nạp order + món, UPDATE order_items, đúng 1 UPDATE orders (tổng tiền cùng version)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(orderService.getById(orderId).getTotalAmount()).isEqualTo(updated.getTotalAmount());
+    }
+
+    @Test
+    void tableListAndMenuCatalogReload_selectProjectionsWithoutLoadingEntities() {
+        openOrders(2);
+        menuCatalog.invalidate();
+
+        statistics.clear();
+        assertThat(diningTableService.getAll(null, null)).isNotEmpty();
+        assertThat(diningTableService.getAll(TableStatus.OCCUPIED, null))
+                .allSatisfy(t -> assertThat(t.getStatus()).isEqualTo("OCCUPIED"));
+        assertThat(menuCatalog.findMenuItems(null, null, null))
+                .filteredOn(m -> m.getId().equals(menuItems.get(0).getId()))
+                .singleElement()
+                .satisfies(m -> assertThat(m.getCategoryName()).startsWith("N+1-"));
+
+        // 2 danh sách bàn + loại + món JOIN loại; không entity nào vào persistence context
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private List<Long> openOrders(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int t = 0; t < count; t++) {
+            DiningTable table = fixtures.table("N+1");
+            ids.add(orderService.createOrder(order(table.getId(), menuItems.stream().map(m -> line(m, 1)).toList())).getId());
+        }
+        return ids;
+    }
+}
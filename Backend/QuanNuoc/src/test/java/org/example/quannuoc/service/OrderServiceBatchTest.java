@@ -0,0 +1,164 @@
+package org.example.quannuoc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.AddOrderItemsRequest;
+import org.example.quannuoc.dto.request.ItemStatusTransitionRequest;
+import org.example.quannuoc.dto.request.OrderItemRequest;
+import org.example.quannuoc.dto.response.ItemStatusTransitionResponse;
+import org.example.quannuoc.dto.response.KitchenItemResponse;
+import org.example.quannuoc.dto.response.OrderItemResponse;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.dto.response.RejectedItemResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.OrderItemStatus;
+import org.example.quannuoc.repository.OrderItemRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OrderServiceBatchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<MenuItem> menuItems;
+    private DiningTable table;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Category category = fixtures.category("Batch");
+        menuItems = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            menuItems.add(fixtures.menuItem(category, "Món batch " + i, 10_000L * (i + 1)));
+        }
+        table = fixtures.table("batch");
+    }
+
+    @Test
+    void addItemsToOrder_costsConstantRoundTripsRegardlessOfLineCount() {
+        OrderResponse order = orderService.createOrder(order(table.getId(), itemRequests(1)));
+
+        long fewLines = countStatements(() -> orderService.addItemsToOrder(order.getId(), addRequest(2)));
+        long manyLines = countStatements(() -> orderService.addItemsToOrder(order.getId(), addRequest(20)));
+
+        // Có thể lệch 1 câu nextval khi pool của sequence vừa cạn, nhưng không tăng theo số dòng
+        assertThat(manyLines).isLessThanOrEqualTo(fewLines + 1);
+        assertThat(manyLines).isLessThan(20);
+        assertThat(orderItemRepository.findByOrderId(order.getId())).hasSize(23);
+    }
+
+    @Test
+    void createOrder_persistsAllLinesAndTotal() {
+        OrderResponse order = orderService.createOrder(order(table.getId(), itemRequests(6)));
+
+        long expected = 2 * (10_000L + 20_000L + 30_000L);
+        assertThat(order.getItems()).hasSize(6);
+        assertThat(order.getTotalAmount()).isEqualTo(expected);
+    }
+
+    @Test
+    void transitionItems_updatesInOneStatementAndReportsPerItem() {
+        OrderResponse order = orderService.createOrder(order(table.getId(), itemRequests(6)));
+        List<Long> ids = order.getItems().stream().map(OrderItemResponse::getId).toList();
+
+        ItemStatusTransitionResponse serving = orderService.transitionItems(transition(ids, OrderItemStatus.SERVING));
+        assertThat(serving.getChanged()).extracting(KitchenItemResponse::getStatus).containsOnly("SERVING").hasSize(6);
+        assertThat(serving.getRejected()).isEmpty();
+        // Món đang làm vẫn nằm trong snapshot bếp → sự kiện item-updated sau đó khớp với món client đã có
+        assertThat(orderService.getKitchenQueue()).filteredOn(k -> ids.contains(k.getId()))
+                .extracting(KitchenItemResponse::getStatus).containsOnly("SERVING").hasSize(6);
+
+        List<Long> cancelled = List.of(ids.get(0), ids.get(1), -1L);
+        long statements = countStatements(() -> orderService.transitionItems(transition(cancelled, OrderItemStatus.CANCELLED)));
+        // SELECT dòng + UPDATE món + UPDATE version + UPDATE tổng tiền (1 order), không tăng theo số dòng
+        assertThat(statements).isLessThanOrEqualTo(4);
+
+        ItemStatusTransitionResponse again = orderService.transitionItems(transition(cancelled, OrderItemStatus.SERVED));
+        assertThat(again.getChanged()).isEmpty();
+        assertThat(again.getRejected()).extracting(RejectedItemResponse::getReason)
+                .containsExactly("INVALID_TRANSITION", "INVALID_TRANSITION", "NOT_FOUND");
+
+        // 2 dòng đầu là món giá 10k và 20k
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getTotalAmount())
+                .isEqualTo(order.getTotalAmount() - 30_000L);
+        assertThatThrownBy(() -> orderService.transitionItems(transition(ids, OrderItemStatus.PENDING)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ItemStatusTransitionRequest transition(List<Long> ids, OrderItemStatus status) {
+        ItemStatusTransitionRequest request = new ItemStatusTransitionRequest();
+        request.setOrderItemIds(ids);
+        request.setStatus(status);
+        return request;
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void markItemServed_rejectsCancelledItemAndKeepsTotal() {
+        OrderResponse order = orderService.createOrder(order(table.getId(), itemRequests(2)));
+        Long cancelled = order.getItems().get(0).getId();
+        Long serving = order.getItems().get(1).getId();
+        orderService.transitionItems(transition(List.of(cancelled), OrderItemStatus.CANCELLED));
+        orderService.transitionItems(transition(List.of(serving), OrderItemStatus.SERVING));
+        long total = orderService.getById(order.getId()).getTotalAmount();
+
+        assertThatThrownBy(() -> orderService.markItemServed(order.getId(), cancelled))
+                .isInstanceOf(IllegalStateException.class);
+        OrderResponse served = orderService.markItemServed(order.getId(), serving);
+
+        assertThat(served.getTotalAmount()).isEqualTo(total).isEqualTo(20_000L);
+        assertThat(served.getItems()).extracting(OrderItemResponse::getStatus)
+                .containsExactly("CANCELLED", "SERVED");
+        assertThatThrownBy(() -> orderService.markItemServed(order.getId(), serving))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private AddOrderItemsRequest addRequest(int lines) {
+        AddOrderItemsRequest request = new AddOrderItemsRequest();
+        request.setItems(itemRequests(lines));
+        return request;
+    }
+
+    private List<OrderItemRequest> itemRequests(int lines) {
+        List<OrderItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            requests.add(line(menuItems.get(i % menuItems.size()), 1));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.AddOrderItemsRequest;
+import org.example.quannuoc.dto.request.MergeTableRequest;
+import org.example.quannuoc.dto.request.OrderItemRequest;
+import org.example.quannuoc.dto.request.SplitOrderRequest;
+import org.example.quannuoc.dto.request.UpdateOrderItemRequest;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.dto.response.TotalDriftResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class OrderTotalAuditTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderTotalAuditService orderTotalAuditService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MenuItem coffee;
+    private MenuItem tea;
+
+    @BeforeEach
+    void setUp() {
+        Category category = fixtures.category("Delta");
+        coffee = fixtures.menuItem(category, "Cà phê", 20_000L);
+        tea = fixtures.menuItem(category, "Trà", 7_000L);
+    }
+
+    @Test
+    void deltaTotalsStayInSyncThroughEveryLineChange() {
+        DiningTable first = fixtures.table("delta");
+        DiningTable second = fixtures.table("delta");
+        OrderResponse order = orderService.createOrder(order(first.getId(), line(coffee, 2)));
+        assertThat(storedTotal(order.getId())).isEqualTo(40_000L);
+
+        order = orderService.addItemsToOrder(order.getId(), add(line(tea, 3), line(coffee, 1)));
+        assertThat(order.getTotalAmount()).isEqualTo(81_000L);
+
+        Long teaLine = order.getItems().get(1).getId();
+        UpdateOrderItemRequest update = new UpdateOrderItemRequest();
+        update.setQuantity(1);
+        order = orderService.updateOrderItem(order.getId(), teaLine, update);
+        assertThat(order.getTotalAmount()).isEqualTo(67_000L);
+
+        order = orderService.removeOrderItem(order.getId(), order.getItems().get(2).getId());
+        assertThat(order.getTotalAmount()).isEqualTo(47_000L);
+
+        SplitOrderRequest split = new SplitOrderRequest();
+        split.setTargetTableId(second.getId());
+        split.setOrderItemIds(List.of(teaLine));
+        OrderResponse splitTarget = orderService.splitOrder(order.getId(), split);
+        assertThat(splitTarget.getTotalAmount()).isEqualTo(7_000L);
+        assertThat(storedTotal(order.getId())).isEqualTo(40_000L);
+
+        MergeTableRequest merge = new MergeTableRequest();
+        merge.setSourceTableId(second.getId());
+        merge.setTargetTableId(first.getId());
+        OrderResponse merged = orderService.mergeOrders(merge);
+        assertThat(merged.getTotalAmount()).isEqualTo(47_000L);
+        assertThat(storedTotal(merged.getId())).isEqualTo(47_000L);
+
+        assertThat(orderTotalAuditService.audit())
+                .extracting(TotalDriftResponse::getOrderId)
+                .doesNotContain(merged.getId());
+    }
+
+    @Test
+    void auditReportsCorruptedTotal() {
+        OrderResponse order = orderService.createOrder(order(fixtures.table("delta").getId(), line(tea, 2)));
+        jdbcTemplate.update("UPDATE orders SET total_amount = total_amount + 999 WHERE id = ?", order.getId());
+
+        List<TotalDriftResponse> drift = orderTotalAuditService.audit();
+
+        assertThat(drift).anySatisfy(d -> {
+            assertThat(d.getOrderId()).isEqualTo(order.getId());
+            assertThat(d.getStoredTotal()).isEqualTo(14_999L);
+            assertThat(d.getRecomputedTotal()).isEqualTo(14_000L);
+        });
+        assertThat(orderTotalAuditService.getLastDriftCount()).isPositive();
+
+        jdbcTemplate.update("UPDATE orders SET total_amount = total_amount - 999 WHERE id = ?", order.getId());
+    }
+
+    private long storedTotal(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getTotalAmount();
+    }
+
+    private static AddOrderItemsRequest add(OrderItemRequest... items) {
+        AddOrderItemsRequest request = new AddOrderItemsRequest();
+        request.setItems(List.of(items));
+        return request;
+    }}
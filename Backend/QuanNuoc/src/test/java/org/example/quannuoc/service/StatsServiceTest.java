@@ -0,0 +1,177 @@
+package org.example.quannuoc.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.ChartBucket;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.request.SalesWindow;
+import org.example.quannuoc.dto.response.BestSellerResponse;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.dto.response.RevenueChartResponse;
+import org.example.quannuoc.dto.response.StatsResponse;
+import org.example.quannuoc.dto.response.TopItemResponse;
+import org.example.quannuoc.entity.Category;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.DailySalesRollup;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.entity.OrderItem;
+import org.example.quannuoc.repository.DailySalesRollupRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class StatsServiceTest {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private BestSellerTracker bestSellerTracker;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getRevenueChart_fillsEveryBucketAndCountsTodayPayments() {
+        List<RevenueChartResponse> before = statsService.getRevenueChart(30, ChartBucket.DAY);
+        long todayRevenueBefore = before.get(before.size() - 1).getRevenue();
+
+        payNewOrder(25_000L);
+
+        List<RevenueChartResponse> days = statsService.getRevenueChart(30, ChartBucket.DAY);
+        assertThat(days).hasSize(30);
+        assertThat(days.get(29).getDate()).isEqualTo(LocalDate.now().toString());
+        assertThat(days.get(29).getRevenue()).isEqualTo(todayRevenueBefore + 25_000L);
+
+        List<RevenueChartResponse> months = statsService.getRevenueChart(90, ChartBucket.MONTH);
+        assertThat(months.get(months.size() - 1).getDate())
+                .isEqualTo(LocalDate.now().withDayOfMonth(1).toString());
+        assertThat(months.stream().mapToLong(RevenueChartResponse::getRevenue).sum())
+                .isGreaterThanOrEqualTo(todayRevenueBefore + 25_000L);
+    }
+
+    @Test
+    void getTodayStats_sumsPaymentsSpreadAcrossSlots() {
+        StatsResponse before = statsService.getTodayStats();
+
+        payNewOrder(10_000L);
+        payNewOrder(20_000L);
+        payNewOrder(30_000L);
+
+        StatsResponse after = statsService.getTodayStats();
+        assertThat(after.getTodayRevenue()).isEqualTo(before.getTodayRevenue() + 60_000L);
+        assertThat(after.getTodayOrders()).isEqualTo(before.getTodayOrders() + 3);
+        // Id order liên tiếp rơi vào các slot khác nhau — không còn 1 dòng duy nhất mỗi ngày
+        assertThat(dailySalesRollupRepository.findAll().stream()
+                .filter(r -> r.getSalesDate().equals(LocalDate.now()))
+                .map(DailySalesRollup::getSlot)
+                .distinct()
+                .count()).isGreaterThan(1);
+    }
+
+    @Test
+    void rebuild_reproducesIncrementalRollup() {
+        payNewOrder(40_000L);
+        StatsResponse incremental = statsService.getTodayStats();
+        List<TopItemResponse> incrementalTop = statsService.getTopItems(1);
+
+        salesRollupService.rebuild();
+
+        StatsResponse rebuilt = statsService.getTodayStats();
+        assertThat(rebuilt.getTodayRevenue()).isEqualTo(incremental.getTodayRevenue());
+        assertThat(rebuilt.getTodayOrders()).isEqualTo(incremental.getTodayOrders());
+        assertThat(statsService.getTopItems(1))
+                .extracting(TopItemResponse::getQuantity)
+                .containsExactlyElementsOf(incrementalTop.stream().map(TopItemResponse::getQuantity).toList());
+    }
+
+    @Test
+    void getBestSellers_tracksPaymentsByItemIdAndMatchesRebuild() {
+        Long bestSeller = payNewOrder(12_000L, 500);
+
+        List<BestSellerResponse> live = statsService.getBestSellers(SalesWindow.HOUR, 3);
+        assertThat(live.get(0).getMenuItemId()).isEqualTo(bestSeller);
+        assertThat(live.get(0).getQuantity()).isBetween(500L, 500L + live.get(0).getMaxError());
+        assertThat(live.get(0).getName()).isEqualTo("Món thống kê");
+
+        bestSellerTracker.rebuild();
+
+        BestSellerResponse rebuilt = statsService.getBestSellers(SalesWindow.WEEK, 1).get(0);
+        assertThat(rebuilt.getMenuItemId()).isEqualTo(bestSeller);
+        assertThat(rebuilt.getQuantity()).isBetween(500L, 500L + rebuilt.getMaxError());
+    }
+
+    // Dòng tổng hợp đã có → mỗi bảng đúng 1 câu UPDATE, không INSERT. Trên H2, INSERT ... ON CONFLICT trùng khóa
+    // rollback về savepoint và đánh thức mọi transaction đang chờ khóa slot — kiểu INSERT trước từng làm
+    // giả lập ca tối (benchmarks) nghẽn ở đây
+    @Test
+    void recordPayment_updatesExistingRollupRowsWithoutInsert() {
+        MenuItem menuItem = fixtures.menuItem(fixtures.category("Stats"), "Món thống kê", 15_000L);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long statements = transactionTemplate.execute(status -> {
+            salesRollupService.recordPayment(paidOrder(menuItem));
+            statistics.clear();
+            salesRollupService.recordPayment(paidOrder(menuItem));
+            status.setRollbackOnly(); // không để order giả làm lệch rebuild ở test khác
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    private Order paidOrder(MenuItem menuItem) {
+        Order order = Order.builder()
+                .id(1L)
+                .paidAt(LocalDateTime.of(2000, 1, 1, 20, 0))
+                .totalAmount(30_000L)
+                .build();
+        order.getItems().add(OrderItem.builder().order(order).menuItem(menuItem).quantity(2).priceAtOrder(15_000L).build());
+        return order;
+    }
+
+    private void payNewOrder(long price) {
+        payNewOrder(price, 1);
+    }
+
+    private Long payNewOrder(long price, int quantity) {
+        Category category = fixtures.category("Stats");
+        MenuItem menuItem = fixtures.menuItem(category, "Món thống kê", price);
+        DiningTable table = fixtures.table("stats");
+
+        OrderResponse order = orderService.createOrder(order(table.getId(), line(menuItem, quantity)));
+
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        orderService.payOrder(order.getId(), pay);
+        return menuItem.getId();
+    }
+}
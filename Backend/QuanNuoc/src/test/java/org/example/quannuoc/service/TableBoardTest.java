@@ -0,0 +1,109 @@
+package org.example.quannuoc.service;
+
+import org.example.quannuoc.TestFixtures;
+import org.example.quannuoc.dto.request.DiningTableRequest;
+import org.example.quannuoc.dto.request.PayOrderRequest;
+import org.example.quannuoc.dto.response.DiningTableResponse;
+import org.example.quannuoc.dto.response.OrderResponse;
+import org.example.quannuoc.dto.response.TableBoardResponse;
+import org.example.quannuoc.entity.DiningTable;
+import org.example.quannuoc.entity.MenuItem;
+import org.example.quannuoc.entity.Order;
+import org.example.quannuoc.repository.DiningTableRepository;
+import org.example.quannuoc.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.quannuoc.TestFixtures.line;
+import static org.example.quannuoc.TestFixtures.order;
+
+@SpringBootTest
+class TableBoardTest {
+
+    @Autowired
+    private DiningTableService diningTableService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TableBoard tableBoard;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private DiningTableRepository diningTableRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void boardFollowsOrderLifecycleAndMatchesRebuild() {
+        DiningTableRequest tableRequest = new DiningTableRequest();
+        tableRequest.setName(TestFixtures.tableName("board"));
+        tableRequest.setSeats(4);
+        DiningTableResponse table = diningTableService.create(tableRequest);
+        assertThat(entry(table.getId()).getStatus()).isEqualTo("AVAILABLE");
+        assertThat(diningTableService.getAll(null, "ban BOARD"))
+                .extracting(DiningTableResponse::getId)
+                .contains(table.getId());
+
+        MenuItem menuItem = fixtures.menuItem(fixtures.category("Board"), "Cà phê sữa", 20_000L);
+        OrderResponse order = orderService.createOrder(order(table.getId(), line(menuItem, 3)));
+
+        TableBoardResponse occupied = entry(table.getId());
+        assertThat(occupied.getStatus()).isEqualTo("OCCUPIED");
+        assertThat(occupied.getOrderId()).isEqualTo(order.getId());
+        assertThat(occupied.getTotalAmount()).isEqualTo(60_000L);
+        assertThat(occupied.getItemCount()).isEqualTo(3);
+
+        tableBoard.rebuild();
+        assertThat(entry(table.getId()).getOrderId()).isEqualTo(order.getId());
+
+        PayOrderRequest pay = new PayOrderRequest();
+        pay.setPaymentMethod("CASH");
+        orderService.payOrder(order.getId(), pay);
+
+        TableBoardResponse paid = entry(table.getId());
+        assertThat(paid.getStatus()).isEqualTo("AVAILABLE");
+        assertThat(paid.getOrderId()).isNull();
+    }
+
+    @Test
+    void staleWritesAndOlderSnapshotsDoNotOverwriteNewerEntries() {
+        DiningTableRequest tableRequest = new DiningTableRequest();
+        tableRequest.setName(TestFixtures.tableName("version"));
+        DiningTableResponse created = diningTableService.create(tableRequest);
+        MenuItem menuItem = fixtures.menuItem(fixtures.category("Board"), "Trà tắc", 20_000L);
+        Long orderId = orderService.createOrder(order(created.getId(), line(menuItem, 3))).getId();
+
+        DiningTable table = diningTableRepository.findById(created.getId()).orElseThrow();
+        Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+        long committed = order.getVersion();
+
+        // Cập nhật của commit cũ hơn đến muộn (ngoài transaction → áp dụng ngay)
+        order.setTotalAmount(1L);
+        order.setVersion(committed - 1);
+        tableBoard.update(table, order);
+        tableBoard.adjust(table.getId(), orderId, committed, -20_000L, -1);
+        assertThat(entry(table.getId()).getTotalAmount()).isEqualTo(60_000L);
+
+        // Commit mới hơn áp dụng giữa lúc rebuild đọc DB và lúc ghép: snapshot cũ hơn không ghi đè
+        order.setTotalAmount(90_000L);
+        order.setVersion(committed + 1);
+        tableBoard.update(table, order);
+        tableBoard.rebuild();
+        assertThat(entry(table.getId()).getTotalAmount()).isEqualTo(90_000L);
+        assertThat(entry(table.getId()).getOrderId()).isEqualTo(orderId);
+    }
+
+    private TableBoardResponse entry(Long tableId) {
+        return diningTableService.getBoard().stream()
+                .filter(e -> e.getTableId().equals(tableId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.quannuoc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderPartitionsTest {
+
+    @Test
+    void plansMissingFutureMonthsAndMonthsPastRetention() {
+        YearMonth current = YearMonth.of(2026, 3);
+        List<YearMonth> existing = List.of(
+                YearMonth.of(2024, 12), YearMonth.of(2025, 2), YearMonth.of(2025, 3),
+                YearMonth.of(2026, 3), YearMonth.of(2026, 4));
+
+        OrderPartitions.Plan plan = OrderPartitions.plan(current, existing, 3, 12);
+
+        assertThat(plan.create()).containsExactly(YearMonth.of(2026, 5), YearMonth.of(2026, 6));
+        // Giữ tháng hiện tại + 12 tháng trước: 2025-03 còn giữ, 2025-02 trở về trước thì lưu trữ
+        assertThat(plan.archiveBefore()).isEqualTo(YearMonth.of(2025, 3));
+        assertThat(plan.archive()).containsExactly(YearMonth.of(2024, 12), YearMonth.of(2025, 2));
+        assertThat(OrderPartitions.plan(current, existing, 3, 0).archive()).isEmpty();
+    }
+
+    @Test
+    void namesRoundTrip() {
+        YearMonth month = YearMonth.of(2026, 1);
+
+        assertThat(OrderPartitions.monthly(month)).isEqualTo("orders_p202601");
+        assertThat(OrderPartitions.monthOf("orders_p202601")).contains(month);
+        assertThat(OrderPartitions.monthOf(OrderPartitions.OPEN)).isEmpty();
+        assertThat(OrderPartitions.monthOf(OrderPartitions.ARCHIVE)).isEmpty();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.quannuoc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertThat(SearchUtils.fold("  Cà  Phê Đá-Xay ")).isEqualTo("ca phe da xay");
+        assertThat(SearchUtils.fold("Bánh mì ĐẶC BIỆT")).isEqualTo("banh mi dac biet");
+        assertThat(SearchUtils.fold(null)).isEmpty();
+    }
+
+    @Test
+    void matchesWithoutDiacriticsAndRanksExactThenPrefix() {
+        Map<Long, String> names = new LinkedHashMap<>();
+        names.put(1L, "Bạc xỉu cà phê");
+        names.put(2L, "Cà phê sữa đá");
+        names.put(3L, "Cà phê");
+        names.put(4L, "Trà đào");
+        names.put(5L, "Capheine"); // có trigram "cap"… nhưng không chứa "ca phe"
+        SearchIndex<Long> index = SearchIndex.of(names);
+
+        assertThat(index.search("ca phe")).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("CÀ PHÊ")).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("dao")).containsExactly(4L);
+        assertThat(index.search("ph")).containsExactly(3L, 2L, 1L, 5L);
+        assertThat(index.search("xyz")).isEmpty();
+        assertThat(index.search("  ")).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.quannuoc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void findsHeavyHittersWithBoundedErrorAcrossMergedBuckets() {
+        Random random = new Random(42);
+        List<SpaceSavingSketch> buckets = List.of(new SpaceSavingSketch(10), new SpaceSavingSketch(10));
+        Map<Long, Long> exact = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            // 3 món bán chạy + đuôi dài 200 món hiếm
+            long key = random.nextInt(4) == 0 ? 100 + random.nextInt(200) : random.nextInt(3);
+            buckets.get(i % 2).add(key, 1, 10);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSavingSketch.Entry> top = SpaceSavingSketch.top(buckets, 3);
+
+        assertThat(top).extracting(SpaceSavingSketch.Entry::key).containsExactlyInAnyOrder(0L, 1L, 2L);
+        for (SpaceSavingSketch.Entry e : top) {
+            long real = exact.get(e.key());
+            assertThat(e.count()).isGreaterThanOrEqualTo(real);
+            assertThat(e.count() - e.error()).isLessThanOrEqualTo(real);
+        }
+    }
+
+    @Test
+    void isExactWhileUnderCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        sketch.add(1, 3, 30_000);
+        sketch.add(2, 5, 40_000);
+        sketch.add(1, 4, 40_000);
+
+        List<SpaceSavingSketch.Entry> top = SpaceSavingSketch.top(List.of(sketch), 5);
+
+        assertThat(top).containsExactly(
+                new SpaceSavingSketch.Entry(1, 7, 0, 70_000),
+                new SpaceSavingSketch.Entry(2, 5, 0, 40_000));
+    }
+}
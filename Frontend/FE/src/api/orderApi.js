@@ -2,6 +2,7 @@ import api from './api';
 
 export const getActiveOrders = () => api.get('/orders/active');
 export const getOrderHistory = (page = 0, size = 10) => api.get(`/orders/history?page=${page}&size=${size}`);
+export const getOrderHistoryByCursor = (cursor, size = 20) => api.get('/orders/history/cursor', { params: { cursor, size } });
 export const getOrder = (id) => api.get(`/orders/${id}`);
 export const getActiveOrderByTable = (tableId) => api.get(`/orders/table/${tableId}`);
 export const createOrder = (data) => api.post('/orders', data);
@@ -12,4 +13,5 @@ export const payOrder = (orderId, data) => api.patch(`/orders/${orderId}/pay`, d
 
 // Kitchen
 export const getPendingOrderItems = (page = 0, size = 100) => api.get(`/orders/kitchen/pending?page=${page}&size=${size}`);
-export const markItemAsServed = (orderId, itemId) => api.patch(`/orders/${orderId}/items/${itemId}/serve`);
\ No newline at end of file
+export const markItemAsServed = (orderId, itemId) => api.patch(`/orders/${orderId}/items/${itemId}/serve`);
+export const transitionItems = (orderItemIds, status) => api.patch('/orders/kitchen/items/status', { orderItemIds, status });